@@ -0,0 +1,637 @@
+package benchmark;
+
+import app.Admin;
+import app.Snapshot;
+import app.audio.Collections.Playlist;
+import app.audio.Files.Song;
+import app.commands.CommandLog;
+import app.player.Player;
+import app.searchBar.Filters;
+import app.searchBar.SearchBar;
+import app.user.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+import fileio.input.FiltersInput;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Times the hot paths of the library against a {@link SyntheticLibrary}: search per filter
+ * type, song search per filter on a catalog of 1M songs, advancing the clock with every player
+ * running, a player on repeat all through a playlist of 10k songs skipping a million seconds at
+ * a time, the charts, user deletion, page printing, looking users up by name in the index and
+ * by scanning them, at 10k, 100k and 1M users, appending to the command log, with a sync per
+ * command or per group, and writing and restoring a snapshot, against rebuilding the library
+ * from its inputs.
+ *
+ * Every case runs in JVMs of its own, forked one after the other, so no case inherits the
+ * heap, the compiled code or the state another left behind. Each fork runs warmup rounds and
+ * then measured rounds of a fixed duration and reports the median time per operation of its
+ * measured rounds, and the median of the bytes the operations allocated on the thread running
+ * them, as the JVM counts them per thread. The case gets the lowest medians of its forks, since
+ * whatever else the machine does only ever adds time, and the spread of the forks is printed
+ * next to it. With {@code --forks 0} the cases run one after the other in this JVM instead.
+ *
+ * The results are compared with a baseline file, and the run exits with status 1 when a case
+ * got slower than its baseline by more than the threshold, or allocates more per operation by
+ * more than the threshold and more than a few objects. With {@code --write-baseline} the
+ * results replace the baseline instead.
+ *
+ * Usage: {@code Benchmarks [--songs N] [--users M] [--podcasts P] [--episodes K]
+ * [--forks F] [--baseline FILE] [--threshold PERCENT] [--write-baseline] [--only PREFIX]}
+ */
+public final class Benchmarks {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+    private static final long ROUND_NANOS = 50_000_000L;
+    private static final double HUNDRED = 100.0;
+
+    private static final int DEFAULT_SONGS = 10_000;
+    private static final int DEFAULT_USERS = 1_000;
+    private static final int DEFAULT_PODCASTS = 100;
+    private static final int DEFAULT_EPISODES = 20;
+    private static final int DEFAULT_FORKS = 3;
+    private static final double DEFAULT_THRESHOLD = 25;
+    private static final String DEFAULT_BASELINE = "bench/baseline.json";
+    private static final int LOG_GROUP = 256;
+    private static final long LOG_MILLIS = 50;
+    private static final String FORK_RESULT = "fork result ";
+    private static final int[] LOOKUP_USERS = {10_000, 100_000, 1_000_000};
+    private static final long LOOKUP_STEP = 7_919;
+    private static final int CATALOG_SONGS = 1_000_000;
+    private static final int LOOPED_TRACKS = 10_000;
+    private static final int LONG_GAP = 1_000_000;
+    private static final long ALLOCATION_SLACK = 64;
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final SyntheticLibrary library;
+    private final List<Case> cases = new ArrayList<>();
+    private final List<CommandLog> logs = new ArrayList<>();
+
+    private Benchmarks(final SyntheticLibrary library) {
+        this.library = library;
+        addSearches();
+        addCatalogSearches();
+        addClock();
+        addLongGaps();
+        addCharts();
+        addDeletes();
+        addPages();
+        addUserLookups();
+        addCommandLog();
+        addSnapshots();
+    }
+
+    /**
+     * @param args from command line
+     * @throws IOException in case of exceptions to reading / writing the baseline
+     */
+    public static void main(final String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--write-baseline".equals(args[i])) {
+                options.put(args[i], "true");
+            } else if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        int songs = intOption(options, "--songs", DEFAULT_SONGS);
+        int users = intOption(options, "--users", DEFAULT_USERS);
+        int podcasts = intOption(options, "--podcasts", DEFAULT_PODCASTS);
+        int episodes = intOption(options, "--episodes", DEFAULT_EPISODES);
+        double threshold = Double.parseDouble(options.getOrDefault("--threshold",
+                String.valueOf(DEFAULT_THRESHOLD)));
+        File baselineFile = new File(options.getOrDefault("--baseline", DEFAULT_BASELINE));
+        String only = options.getOrDefault("--only", "");
+        int forks = intOption(options, "--forks", DEFAULT_FORKS);
+
+        String scale = songs + " songs, " + users + " users, " + podcasts + " podcasts x "
+                + episodes + " episodes";
+        Benchmarks benchmarks =
+                new Benchmarks(new SyntheticLibrary(songs, users, podcasts, episodes));
+
+        if (options.containsKey("--fork")) {
+            for (Case benchmark : benchmarks.cases) {
+                if (benchmark.name.equals(options.get("--fork"))) {
+                    Result result = benchmarks.measure(benchmark);
+                    System.out.println(FORK_RESULT + result.nanos + " " + result.bytes);
+                }
+            }
+            benchmarks.close();
+            return;
+        }
+
+        List<String> scaleArgs = List.of("--songs", String.valueOf(songs),
+                "--users", String.valueOf(users), "--podcasts", String.valueOf(podcasts),
+                "--episodes", String.valueOf(episodes));
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Case benchmark : benchmarks.cases) {
+            if (!benchmark.name.startsWith(only)) {
+                continue;
+            }
+            if (forks == 0) {
+                Result result = benchmarks.measure(benchmark);
+                results.put(benchmark.name, result);
+                System.out.printf("%-28s %,12d ns/op %,12d B/op%n", benchmark.name,
+                        result.nanos, result.bytes);
+                continue;
+            }
+            long[] medians = new long[forks];
+            long[] bytes = new long[forks];
+            for (int fork = 0; fork < forks; fork++) {
+                Result result = fork(benchmark.name, scaleArgs);
+                medians[fork] = result.nanos;
+                bytes[fork] = result.bytes;
+            }
+            Arrays.sort(medians);
+            Arrays.sort(bytes);
+            results.put(benchmark.name, new Result(medians[0], bytes[0]));
+            System.out.printf("%-28s %,12d ns/op %,12d B/op  (%,d .. %,d over %d forks)%n",
+                    benchmark.name, medians[0], bytes[0], medians[0], medians[forks - 1], forks);
+        }
+        benchmarks.close();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (options.containsKey("--write-baseline")) {
+            ObjectNode baseline = objectMapper.createObjectNode();
+            baseline.put("scale", scale);
+            ObjectNode nanosPerOp = baseline.putObject("nanosPerOp");
+            ObjectNode bytesPerOp = baseline.putObject("bytesPerOp");
+            results.forEach((name, result) -> {
+                nanosPerOp.put(name, result.nanos);
+                bytesPerOp.put(name, result.bytes);
+            });
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile, baseline);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        if (!baselineFile.exists()) {
+            System.out.println("No baseline at " + baselineFile + ", nothing to compare.");
+            return;
+        }
+        JsonNode baseline = objectMapper.readTree(baselineFile);
+        if (!scale.equals(baseline.path("scale").asText())) {
+            System.out.println("Baseline was taken at " + baseline.path("scale").asText()
+                    + ", not comparing.");
+            return;
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> result : results.entrySet()) {
+            JsonNode expected = baseline.path("nanosPerOp").path(result.getKey());
+            if (expected.canConvertToLong() && expected.asLong() != 0) {
+                double change = (result.getValue().nanos - expected.asLong()) * HUNDRED
+                        / expected.asLong();
+                if (change > threshold) {
+                    regressions.add(String.format("%s: %,d ns/op, baseline %,d ns/op (+%.0f%%)",
+                            result.getKey(), result.getValue().nanos, expected.asLong(),
+                            change));
+                }
+            }
+            JsonNode expectedBytes = baseline.path("bytesPerOp").path(result.getKey());
+            if (expectedBytes.canConvertToLong()) {
+                long growth = result.getValue().bytes - expectedBytes.asLong();
+                if (growth > Math.max(ALLOCATION_SLACK,
+                        expectedBytes.asLong() * threshold / HUNDRED)) {
+                    regressions.add(String.format("%s: %,d B/op, baseline %,d B/op (+%,d)",
+                            result.getKey(), result.getValue().bytes, expectedBytes.asLong(),
+                            growth));
+                }
+            }
+        }
+        if (regressions.isEmpty()) {
+            System.out.printf("No case slower or allocating more than its baseline by more than"
+                    + " %.0f%%.%n", threshold);
+            return;
+        }
+        System.out.printf("%d regressions against the baseline by more than %.0f%%:%n",
+                regressions.size(), threshold);
+        regressions.forEach(System.out::println);
+        System.exit(1);
+    }
+
+    /**
+     * Measures one case in a JVM of its own, started with the options and class path of this one.
+     *
+     * @param name      the case
+     * @param scaleArgs the options giving the size of the library
+     * @return the median time and allocation per operation the fork reported
+     * @throws IOException in case of exceptions to starting the fork or if it reported nothing
+     */
+    private static Result fork(final String name, final List<String> scaleArgs)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Benchmarks.class.getName());
+        command.addAll(scaleArgs);
+        command.add("--fork");
+        command.add(name);
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        Result result = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(
+                process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                if (line.startsWith(FORK_RESULT)) {
+                    String[] fields = line.substring(FORK_RESULT.length()).split(" ");
+                    result = new Result(Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+                }
+            }
+        }
+        try {
+            if (process.waitFor() != 0 || result == null) {
+                throw new IOException("The fork measuring " + name + " failed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while measuring " + name, e);
+        }
+        return result;
+    }
+
+    private void close() throws IOException {
+        for (CommandLog log : logs) {
+            log.close();
+        }
+        Admin.reset();
+    }
+
+    private static int intOption(final Map<String, String> options, final String name,
+                                 final int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private Result measure(final Case benchmark) {
+        library.install();
+        benchmark.setUp.run();
+        System.gc();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            round(benchmark);
+        }
+        long[] nanos = new long[ROUNDS];
+        long[] bytes = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            Result result = round(benchmark);
+            nanos[round] = result.nanos;
+            bytes[round] = result.bytes;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new Result(nanos[ROUNDS / 2], bytes[ROUNDS / 2]);
+    }
+
+    private Result round(final Case benchmark) {
+        long roundStart = System.nanoTime();
+        long spent = 0;
+        long allocated = 0;
+        long operations = 0;
+        while (System.nanoTime() - roundStart < ROUND_NANOS) {
+            benchmark.prepare.accept(benchmark.invocations);
+            long startBytes = allocatedBytes();
+            long start = System.nanoTime();
+            benchmark.operation.accept(benchmark.invocations);
+            spent += System.nanoTime() - start;
+            allocated += allocatedBytes() - startBytes;
+            benchmark.invocations++;
+            operations++;
+        }
+        return new Result(spent / operations, allocated / operations);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported()) {
+            counter.setThreadAllocatedMemoryEnabled(true);
+            return counter;
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private void add(final String name, final Consumer<Long> operation) {
+        cases.add(new Case(name, () -> { }, invocation -> { }, operation));
+    }
+
+    private void addSearches() {
+        SearchBar searchBar = new SearchBar(SyntheticLibrary.user(0));
+        addSongSearches(searchBar, "search.song.", () -> { });
+        addSearch(searchBar, "search.podcast.name", "podcast",
+                filters -> filters.setName("podcast1"));
+        addSearch(searchBar, "search.podcast.owner", "podcast",
+                filters -> filters.setOwner("host0"));
+        addSearch(searchBar, "search.playlist.name", "playlist",
+                filters -> filters.setName("playlist1"));
+        addSearch(searchBar, "search.playlist.owner", "playlist",
+                filters -> filters.setOwner(SyntheticLibrary.user(1)));
+        addSearch(searchBar, "search.album.name", "album", filters -> filters.setName("album1"));
+        addSearch(searchBar, "search.artist.name", "artist",
+                filters -> filters.setName("artist1"));
+        addSearch(searchBar, "search.host.name", "host", filters -> filters.setName("host"));
+    }
+
+    private void addSongSearches(final SearchBar searchBar, final String prefix,
+                                 final Runnable setUp) {
+        addSearch(searchBar, prefix + "name", "song", setUp,
+                filters -> filters.setName("song1"));
+        addSearch(searchBar, prefix + "album", "song", setUp,
+                filters -> filters.setAlbum("record12"));
+        addSearch(searchBar, prefix + "tags", "song", setUp, filters -> filters.setTags(
+                new ArrayList<>(List.of(SyntheticLibrary.TAGS[0], SyntheticLibrary.TAGS[1]))));
+        addSearch(searchBar, prefix + "lyrics", "song", setUp,
+                filters -> filters.setLyrics("song99"));
+        addSearch(searchBar, prefix + "genre", "song", setUp,
+                filters -> filters.setGenre(SyntheticLibrary.GENRES[2]));
+        addSearch(searchBar, prefix + "releaseYear", "song", setUp,
+                filters -> filters.setReleaseYear(">2015"));
+        addSearch(searchBar, prefix + "artist", "song", setUp,
+                filters -> filters.setArtist("band3"));
+    }
+
+    private void addCatalogSearches() {
+        SearchBar searchBar = new SearchBar(SyntheticLibrary.user(0));
+        addSongSearches(searchBar, "search1M.song.",
+                () -> Admin.setSongs(SyntheticLibrary.songInputs(CATALOG_SONGS)));
+    }
+
+    private void addSearch(final SearchBar searchBar, final String name, final String type,
+                           final Consumer<FiltersInput> filter) {
+        addSearch(searchBar, name, type, () -> { }, filter);
+    }
+
+    private void addSearch(final SearchBar searchBar, final String name, final String type,
+                           final Runnable setUp, final Consumer<FiltersInput> filter) {
+        FiltersInput input = new FiltersInput();
+        filter.accept(input);
+        Filters filters = new Filters(input);
+        cases.add(new Case(name, setUp, invocation -> { },
+                invocation -> searchBar.search(filters, type)));
+    }
+
+    private void addClock() {
+        cases.add(new Case("updateTimestamp", () -> {
+            for (int u = 0; u < library.getUsers(); u++) {
+                library.run(SyntheticLibrary.command("repeat", SyntheticLibrary.user(u)));
+                library.run(SyntheticLibrary.command("repeat", SyntheticLibrary.user(u)));
+            }
+        }, invocation -> { }, invocation -> {
+            Admin.updateTimestamp(library.getTimestamp() + invocation.intValue() + 1);
+            Admin.syncPlayers();
+        }));
+    }
+
+    private void addLongGaps() {
+        addLongGap("longGap.repeatAll10k", false);
+        addLongGap("longGap.repeatAll10k.shuffle", true);
+    }
+
+    private void addLongGap(final String name, final boolean shuffle) {
+        Player[] player = new Player[1];
+        cases.add(new Case(name, () -> player[0] = loopPlaylist(shuffle), invocation -> { },
+                invocation -> player[0].simulatePlayer(LONG_GAP)));
+    }
+
+    /**
+     * Loads a playlist of the first {@link #LOOPED_TRACKS} songs on repeat all for the first
+     * user.
+     *
+     * @param shuffle whether the playlist plays shuffled
+     * @return the player of the user
+     */
+    private Player loopPlaylist(final boolean shuffle) {
+        String username = SyntheticLibrary.user(0);
+        CommandInput create = SyntheticLibrary.command("createPlaylist", username);
+        create.setPlaylistName("looped");
+        library.run(create);
+        User user = Admin.getUser(username);
+        Playlist playlist = user.getPlaylists().get(user.getPlaylists().size() - 1);
+        List<Song> songs = Admin.getSongs();
+        for (int s = 0; s < Math.min(LOOPED_TRACKS, songs.size()); s++) {
+            playlist.addSong(songs.get(s));
+        }
+
+        FiltersInput filters = new FiltersInput();
+        filters.setName("looped");
+        CommandInput search = SyntheticLibrary.command("search", username);
+        search.setType("playlist");
+        search.setFilters(filters);
+        library.run(search);
+        CommandInput select = SyntheticLibrary.command("select", username);
+        select.setItemNumber(1);
+        library.run(select);
+        library.run(SyntheticLibrary.command("load", username));
+        library.run(SyntheticLibrary.command("repeat", username));
+        if (shuffle) {
+            CommandInput shuffleInput = SyntheticLibrary.command("shuffle", username);
+            shuffleInput.setSeed(1);
+            library.run(shuffleInput);
+        }
+        return user.getPlayer();
+    }
+
+    private void addCharts() {
+        add("getTop5Songs", invocation -> Admin.getTop5Songs());
+        add("getTop5Playlists", invocation -> Admin.getTop5Playlists());
+        add("getTop5Albums", invocation -> Admin.getTop5Albums());
+        add("getTop5Artist", invocation -> Admin.getTop5Artist());
+    }
+
+    private void addDeletes() {
+        cases.add(new Case("deleteUser.user", () -> { }, invocation -> {
+            library.run(SyntheticLibrary.addUser("deleted" + invocation, "user"));
+            CommandInput create = SyntheticLibrary.command("createPlaylist",
+                    "deleted" + invocation);
+            create.setPlaylistName("doomed");
+            library.run(create);
+        }, invocation -> Admin.deleteUser(
+                SyntheticLibrary.command("deleteUser", "deleted" + invocation))));
+
+        cases.add(new Case("deleteUser.artist", () -> { }, invocation -> {
+            library.run(SyntheticLibrary.addUser("deleted" + invocation, "artist"));
+            CommandInput album = SyntheticLibrary.command("addAlbum", "deleted" + invocation);
+            album.setName("doomed");
+            album.setReleaseYear("2000");
+            album.setDescription("doomed");
+            album.setSongs(new ArrayList<>());
+            library.run(album);
+        }, invocation -> Admin.deleteUser(
+                SyntheticLibrary.command("deleteUser", "deleted" + invocation))));
+    }
+
+    private void addPages() {
+        add("printPage", invocation -> {
+            User user = Admin.getUser(
+                    SyntheticLibrary.user((int) (invocation % library.getUsers())));
+            user.printPage();
+        });
+    }
+
+    private void addUserLookups() {
+        for (int count : LOOKUP_USERS) {
+            String size = count % 1_000_000 == 0 ? count / 1_000_000 + "M" : count / 1_000 + "k";
+            Runnable setUp = () -> Admin.setUsers(SyntheticLibrary.userInputs(count));
+            cases.add(new Case("getUser." + size, setUp, invocation -> { }, invocation ->
+                    Admin.getUser(SyntheticLibrary.user(spread(invocation, count)))));
+            cases.add(new Case("getUser.scan." + size, setUp, invocation -> { }, invocation ->
+                    scanUsers(SyntheticLibrary.user(spread(invocation, count)))));
+        }
+    }
+
+    /**
+     * Index of the user an operation looks up, stepping by a prime so that even the few
+     * operations of a slow case reach users all over the registry.
+     *
+     * @param invocation the number of operations before this one
+     * @param count      the number of users
+     * @return the index
+     */
+    private static int spread(final long invocation, final int count) {
+        return (int) (invocation * LOOKUP_STEP % count);
+    }
+
+    /**
+     * Looks a user up the way {@link Admin#getUser(String)} did before it kept an index.
+     *
+     * @param username the username
+     * @return the user, or null
+     */
+    private static User scanUsers(final String username) {
+        for (User user : Admin.getUsers()) {
+            if (user.getUsername().equals(username)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    private void addCommandLog() {
+        FiltersInput filters = new FiltersInput();
+        filters.setName("song1");
+        CommandInput search = SyntheticLibrary.command("search", SyntheticLibrary.user(0));
+        search.setType("song");
+        search.setFilters(filters);
+        search.setTimestamp(library.getTimestamp());
+        addCommandLog("commandLog.perCommand", search, true);
+        addCommandLog("commandLog.group", search, false);
+    }
+
+    private void addCommandLog(final String name, final CommandInput command,
+                               final boolean syncEach) {
+        CommandLog[] log = new CommandLog[1];
+        cases.add(new Case(name, () -> {
+            try {
+                log[0] = CommandLog.create(tempFile(".log"), LOG_GROUP, LOG_MILLIS);
+                logs.add(log[0]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, invocation -> { }, invocation -> {
+            try {
+                log[0].append(command);
+                if (syncEach) {
+                    log[0].sync();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private void addSnapshots() {
+        Path path = tempFile(".snapshot");
+        cases.add(new Case("snapshot.write", () -> { }, invocation -> { },
+                invocation -> snapshot(path)));
+        cases.add(new Case("snapshot.restore", () -> snapshot(path), invocation -> { },
+                invocation -> {
+                    try {
+                        Snapshot.restore(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        add("snapshot.rebuild", invocation -> library.install());
+    }
+
+    private static void snapshot(final Path path) {
+        try {
+            Snapshot.write(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path tempFile(final String suffix) {
+        try {
+            Path path = Files.createTempFile("benchmark", suffix);
+            path.toFile().deleteOnExit();
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Result {
+        private final long nanos;
+        private final long bytes;
+
+        /**
+         * @param nanos the time per operation
+         * @param bytes the bytes allocated per operation by the thread running the case
+         */
+        private Result(final long nanos, final long bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Case {
+        private final String name;
+        private final Runnable setUp;
+        private final Consumer<Long> prepare;
+        private final Consumer<Long> operation;
+        private long invocations;
+
+        /**
+         * @param name      the name the case is reported and baselined under
+         * @param setUp     runs once, after the library is installed
+         * @param prepare   runs untimed before every operation
+         * @param operation the timed operation, given the number of operations before it
+         */
+        private Case(final String name, final Runnable setUp, final Consumer<Long> prepare,
+                     final Consumer<Long> operation) {
+            this.name = name;
+            this.setUp = setUp;
+            this.prepare = prepare;
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package benchmark;
+
+import app.Admin;
+import app.ExecutionContext;
+import app.Snapshot;
+import app.commands.CommandRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.CommandInput;
+import fileio.input.LibraryInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Checks that a replay resumed from a snapshot gives the outputs an uninterrupted replay gives.
+ * Every input file is replayed once straight through and then once per cut: the commands
+ * before the cut are replayed and a snapshot is written, and on a fresh thread, so with a fresh
+ * execution context, the snapshot is restored and the rest of the commands are replayed. The
+ * outputs of both halves together must be those of the straight replay. A replay that stopped
+ * on a failing command before the cut is compared as it is.
+ *
+ * Usage: {@code SnapshotRoundTrip [--inputs DIR] [--cuts N]}, by default over the checker's
+ * input folder with cuts at a quarter, half and three quarters of every file. The run exits
+ * with status 1 if any cut gives other outputs.
+ */
+public final class SnapshotRoundTrip {
+    private static final String DEFAULT_INPUTS = "input";
+    private static final int DEFAULT_CUTS = 3;
+
+    private final LibraryInput library;
+    private final CommandRegistry registry = CommandRegistry.getDefault();
+
+    private SnapshotRoundTrip(final LibraryInput library) {
+        this.library = library;
+    }
+
+    /**
+     * @param args from command line
+     * @throws Exception in case of exceptions to reading / writing or of a failed replay
+     */
+    public static void main(final String[] args) throws Exception {
+        String inputs = DEFAULT_INPUTS;
+        int cuts = DEFAULT_CUTS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("--inputs".equals(args[i])) {
+                inputs = args[i + 1];
+            } else if ("--cuts".equals(args[i])) {
+                cuts = Integer.parseInt(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        SnapshotRoundTrip check = new SnapshotRoundTrip(objectMapper.readValue(
+                new File(inputs, "library/library.json"), LibraryInput.class));
+        File[] files = new File(inputs).listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("No input folder at " + inputs);
+        }
+        Arrays.sort(files);
+
+        Path snapshot = Files.createTempDirectory("round-trip").resolve("run.snapshot");
+        snapshot.toFile().deleteOnExit();
+        snapshot.getParent().toFile().deleteOnExit();
+        int checked = 0;
+        int mismatched = 0;
+        for (File file : files) {
+            CommandInput[] commands = objectMapper.readValue(file, CommandInput[].class);
+            List<String> expected = onFreshThread(
+                    () -> check.replay(commands, commands.length, null));
+            for (int cut = 1; cut <= cuts; cut++) {
+                int at = commands.length * cut / (cuts + 1);
+                Files.deleteIfExists(snapshot);
+                List<String> outputs = new ArrayList<>(
+                        onFreshThread(() -> check.replay(commands, at, snapshot)));
+                if (Files.exists(snapshot)) {
+                    outputs.addAll(onFreshThread(() -> check.resume(commands, at, snapshot)));
+                }
+                checked++;
+                if (!outputs.equals(expected)) {
+                    mismatched++;
+                    System.out.println("Mismatch in " + file.getName() + " resumed at command "
+                            + at);
+                }
+            }
+        }
+        Files.deleteIfExists(snapshot);
+
+        System.out.println(checked + " cuts checked, " + mismatched + " mismatched");
+        if (mismatched > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replays the first commands of a file, starting from the library.
+     *
+     * @param commands the commands
+     * @param count    how many to replay
+     * @param snapshot where to write a snapshot after the last of them, or null
+     * @return the outputs, one per replayed command, ending with the failure if one failed; no
+     * snapshot is written then
+     * @throws IOException in case of exceptions to writing the snapshot
+     */
+    private List<String> replay(final CommandInput[] commands, final int count,
+                                final Path snapshot) throws IOException {
+        ExecutionContext.current().resetPage();
+        Admin.reset();
+        Admin.setUsers(library.getUsers());
+        Admin.setSongs(library.getSongs());
+        Admin.setPodcasts(library.getPodcasts());
+        List<String> outputs = new ArrayList<>();
+        if (run(commands, 0, count, outputs) && snapshot != null) {
+            Snapshot.write(snapshot);
+        }
+        return outputs;
+    }
+
+    private List<String> resume(final CommandInput[] commands, final int from,
+                                final Path snapshot) throws IOException {
+        Snapshot.restore(snapshot);
+        List<String> outputs = new ArrayList<>();
+        run(commands, from, commands.length, outputs);
+        return outputs;
+    }
+
+    /**
+     * Runs commands in order, keeping one output per command. Commands the registry does not
+     * know produce none, as in a replay, but still count.
+     *
+     * @return false if a command failed, its failure being the last output
+     */
+    private boolean run(final CommandInput[] commands, final int from, final int to,
+                        final List<String> outputs) {
+        for (int i = from; i < to; i++) {
+            CommandInput command = commands[i];
+            if (!registry.isRegistered(command.getCommand())) {
+                outputs.add("");
+                continue;
+            }
+            Admin.updateTimestamp(command.getTimestamp());
+            try {
+                outputs.add(String.valueOf(registry.dispatch(command)));
+            } catch (RuntimeException e) {
+                outputs.add("failed: " + e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T onFreshThread(final Callable<T> task) throws Exception {
+        List<T> result = new ArrayList<>();
+        List<Exception> failure = new ArrayList<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.add(task.call());
+            } catch (Exception e) {
+                failure.add(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        if (!failure.isEmpty()) {
+            throw failure.get(0);
+        }
+        return result.get(0);
+    }
+}
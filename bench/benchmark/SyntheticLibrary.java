@@ -0,0 +1,296 @@
+package benchmark;
+
+import app.Admin;
+import app.ExecutionContext;
+import app.commands.CommandRegistry;
+import fileio.input.CommandInput;
+import fileio.input.EpisodeInput;
+import fileio.input.FiltersInput;
+import fileio.input.LibraryInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a library of a given size and replays the commands that populate it: artists with
+ * albums, hosts, normal users with playlists, likes and follows, and a player running for
+ * every normal user. All of it happens at the same instant, so every player is still at the
+ * start of its song when the library is installed. Everything is derived from the indexes,
+ * so two libraries of the same size are identical.
+ */
+public final class SyntheticLibrary {
+    static final String[] GENRES = {"pop", "rock", "jazz", "hip hop", "metal", "blues"};
+    static final String[] TAGS = {"#chill", "#party", "#focus", "#summer", "#live", "#90s"};
+    private static final int FIRST_YEAR = 1970;
+    private static final int YEARS = 50;
+    private static final int SONG_DURATION = 180;
+    private static final int EPISODE_DURATION = 1800;
+    private static final int AGE = 20;
+    private static final int SONGS_PER_ALBUM = 10;
+    private static final int SONGS_PER_PLAYLIST = 5;
+    private static final int START = 1;
+
+    private final int songs;
+    private final int users;
+    private final int podcasts;
+    private final int episodes;
+    private final int artists;
+    private final int hosts;
+
+    /**
+     * Instantiates a new synthetic library.
+     *
+     * @param songs    the number of library songs, as many again are added in albums
+     * @param users    the number of normal users, each owning a playlist
+     * @param podcasts the number of podcasts
+     * @param episodes the number of episodes of every podcast
+     */
+    public SyntheticLibrary(final int songs, final int users, final int podcasts,
+                            final int episodes) {
+        this.songs = songs;
+        this.users = users;
+        this.podcasts = podcasts;
+        this.episodes = episodes;
+        this.artists = Math.max(1, songs / (SONGS_PER_ALBUM * 2));
+        this.hosts = Math.max(1, podcasts / 2);
+    }
+
+    /**
+     * Name of the i-th normal user.
+     *
+     * @param i the index
+     * @return the username
+     */
+    public static String user(final int i) {
+        return "user" + i;
+    }
+
+    /**
+     * Name of the i-th artist.
+     *
+     * @param i the index
+     * @return the username
+     */
+    public static String artist(final int i) {
+        return "artist" + i;
+    }
+
+    /**
+     * Library entries of the first songs of the catalog, named "song" and their index.
+     *
+     * @param count the number of songs
+     * @return the song inputs
+     */
+    public static ArrayList<SongInput> songInputs(final int count) {
+        ArrayList<SongInput> songInputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            songInputs.add(song("song" + i, "record" + i / SONGS_PER_ALBUM,
+                    "band" + i / (SONGS_PER_ALBUM * 2), i));
+        }
+        return songInputs;
+    }
+
+    /**
+     * Library entries of the first normal users, named by {@link #user(int)}.
+     *
+     * @param count the number of users
+     * @return the user inputs
+     */
+    public static ArrayList<UserInput> userInputs(final int count) {
+        ArrayList<UserInput> userInputs = new ArrayList<>();
+        for (int u = 0; u < count; u++) {
+            UserInput user = new UserInput();
+            user.setUsername(user(u));
+            user.setAge(AGE);
+            user.setCity("Cluj");
+            userInputs.add(user);
+        }
+        return userInputs;
+    }
+
+    /**
+     * Gets the clock the library is installed at.
+     *
+     * @return the timestamp
+     */
+    public int getTimestamp() {
+        return START;
+    }
+
+    /**
+     * Gets users.
+     *
+     * @return the number of normal users
+     */
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Drops whatever the calling thread held and loads this library into it.
+     */
+    public void install() {
+        Admin.reset();
+        ExecutionContext.current().resetPage();
+        Admin.updateTimestamp(START);
+
+        LibraryInput library = toInput();
+        Admin.setUsers(library.getUsers());
+        Admin.setSongs(library.getSongs());
+        Admin.setPodcasts(library.getPodcasts());
+
+        for (int a = 0; a < artists; a++) {
+            run(addUser(artist(a), "artist"));
+            run(addAlbum(a));
+        }
+        for (int h = 0; h < hosts; h++) {
+            run(addUser("host" + h, "host"));
+        }
+
+        for (int u = 0; u < users; u++) {
+            String username = user(u);
+            CommandInput create = command("createPlaylist", username);
+            create.setPlaylistName("playlist" + u);
+            run(create);
+            for (int s = 0; s < SONGS_PER_PLAYLIST; s++) {
+                playSong(username, "song" + ((u * SONGS_PER_PLAYLIST + s) % songs));
+                CommandInput add = command("addRemoveInPlaylist", username);
+                add.setPlaylistId(1);
+                run(add);
+                if (s % 2 == 0) {
+                    run(command("like", username));
+                }
+            }
+        }
+
+        for (int u = 0; u < users; u++) {
+            FiltersInput filters = new FiltersInput();
+            filters.setName("playlist" + (u * 7 + 1) % users);
+            search(user(u), "playlist", filters);
+            run(select(user(u)));
+            run(command("follow", user(u)));
+        }
+
+        for (int u = 0; u < users; u++) {
+            playSong(user(u), "song" + (u % songs));
+        }
+    }
+
+    /**
+     * Replays a command at the clock the library is installed at.
+     *
+     * @param commandInput the command input
+     */
+    public void run(final CommandInput commandInput) {
+        commandInput.setTimestamp(START);
+        CommandRegistry.getDefault().dispatch(commandInput);
+    }
+
+    /**
+     * Builds a command without a timestamp, {@link #run(CommandInput)} sets it.
+     *
+     * @param name     the command name
+     * @param username the username
+     * @return the command input
+     */
+    public static CommandInput command(final String name, final String username) {
+        CommandInput commandInput = new CommandInput();
+        commandInput.setCommand(name);
+        commandInput.setUsername(username);
+        return commandInput;
+    }
+
+    /**
+     * Adds a user.
+     *
+     * @param username the username
+     * @param type     user, artist or host
+     * @return the command input
+     */
+    public static CommandInput addUser(final String username, final String type) {
+        CommandInput commandInput = command("addUser", username);
+        commandInput.setType(type);
+        commandInput.setAge(AGE);
+        commandInput.setCity("Bucharest");
+        return commandInput;
+    }
+
+    private void search(final String username, final String type, final FiltersInput filters) {
+        CommandInput search = command("search", username);
+        search.setType(type);
+        search.setFilters(filters);
+        run(search);
+    }
+
+    private static CommandInput select(final String username) {
+        CommandInput select = command("select", username);
+        select.setItemNumber(1);
+        return select;
+    }
+
+    private void playSong(final String username, final String song) {
+        FiltersInput filters = new FiltersInput();
+        filters.setName(song);
+        search(username, "song", filters);
+        run(select(username));
+        run(command("load", username));
+    }
+
+    private CommandInput addAlbum(final int a) {
+        CommandInput commandInput = command("addAlbum", artist(a));
+        commandInput.setName("album" + a);
+        commandInput.setDescription("album of " + artist(a));
+        commandInput.setReleaseYear(String.valueOf(FIRST_YEAR + a % YEARS));
+        ArrayList<SongInput> albumSongs = new ArrayList<>();
+        for (int s = 0; s < SONGS_PER_ALBUM; s++) {
+            albumSongs.add(song("album" + a + " track" + s, "album" + a, artist(a),
+                    a * SONGS_PER_ALBUM + s));
+        }
+        commandInput.setSongs(albumSongs);
+        return commandInput;
+    }
+
+    private static SongInput song(final String name, final String album, final String artist,
+                                  final int i) {
+        SongInput song = new SongInput();
+        song.setName(name);
+        song.setDuration(SONG_DURATION + i % SONG_DURATION);
+        song.setAlbum(album);
+        song.setTags(new ArrayList<>(List.of(TAGS[i % TAGS.length],
+                TAGS[(i / TAGS.length) % TAGS.length])));
+        song.setLyrics("la la " + name + " la");
+        song.setGenre(GENRES[i % GENRES.length]);
+        song.setReleaseYear(FIRST_YEAR + i % YEARS);
+        song.setArtist(artist);
+        return song;
+    }
+
+    private LibraryInput toInput() {
+
+        ArrayList<PodcastInput> podcastInputs = new ArrayList<>();
+        for (int p = 0; p < podcasts; p++) {
+            PodcastInput podcast = new PodcastInput();
+            podcast.setName("podcast" + p);
+            podcast.setOwner("host" + p % hosts);
+            ArrayList<EpisodeInput> episodeInputs = new ArrayList<>();
+            for (int e = 0; e < episodes; e++) {
+                EpisodeInput episode = new EpisodeInput();
+                episode.setName("podcast" + p + " episode" + e);
+                episode.setDuration(EPISODE_DURATION);
+                episode.setDescription("episode " + e);
+                episodeInputs.add(episode);
+            }
+            podcast.setEpisodes(episodeInputs);
+            podcastInputs.add(podcast);
+        }
+
+        LibraryInput library = new LibraryInput();
+        library.setSongs(songInputs(songs));
+        library.setPodcasts(podcastInputs);
+        library.setUsers(userInputs(users));
+        return library;
+    }
+}
@@ -5,11 +5,15 @@ import app.audio.Collections.Playlist;
 import app.audio.Collections.Podcast;
 import app.audio.Files.Episode;
 import app.audio.Files.Song;
+import app.audio.Files.SongStore;
+import app.audio.LibraryEntry;
 import app.pages.Page;
 import app.pages.HostPage;
 import app.pages.TypePage;
 import app.pages.HomePage;
 import app.pages.ArtistPage;
+import app.player.Player;
+import app.searchBar.SearchIndex;
 import app.user.User;
 import app.utils.Enums;
 import fileio.input.CommandInput;
@@ -20,7 +24,11 @@ import fileio.input.EpisodeInput;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Set;
 
 import static app.utils.Enums.UserType.HOST;
 import static app.utils.Enums.UserType.ARTIST;
@@ -33,10 +41,6 @@ import static app.utils.Enums.UserType.NORMAL;
 
 
 public final class Admin {
-    private static List<User> users = new ArrayList<>();
-    private static List<Song> songs = new ArrayList<>();
-    private static List<Podcast> podcasts = new ArrayList<>();
-    private static int timestamp = 0;
     private static final int LIMIT = 5;
 
     private Admin() {
@@ -48,11 +52,29 @@ public final class Admin {
      * @param userInputList the user input list
      */
     public static void setUsers(final List<UserInput> userInputList) {
-        users = new ArrayList<>();
+        ExecutionContext context = ExecutionContext.current();
+        context.users = new ArrayList<>();
+        context.usersByName = new HashMap<>();
+        context.usersByType = new EnumMap<>(Enums.UserType.class);
+        invalidatePlaylists();
+        invalidateAlbums();
+        context.userOrder = new HashMap<>();
+        context.albumOfSong = new HashMap<>();
+        context.playlistChart = null;
+        context.albumChart = null;
+        context.artistChart = null;
+        context.references = new ReferenceIndex();
+        context.playlistIndex = SearchIndex.forPlaylists();
+        context.albumIndex = SearchIndex.forAlbums();
+        context.artistIndex = SearchIndex.forUsers();
+        context.hostIndex = SearchIndex.forUsers();
 
         for (UserInput userInput : userInputList) {
             User user = new User(userInput.getUsername(), userInput.getAge(), userInput.getCity());
-            users.add(user);
+            context.users.add(user);
+            context.usersByName.putIfAbsent(user.getUsername(), user);
+            context.userOrder.put(user, context.nextOrder++);
+            context.references.join(user);
             Page page = Page.getInstance();
             if ("artist".equals(user.getUserType())) {
                 ArtistPage artistPage = new ArtistPage();
@@ -72,46 +94,104 @@ public final class Admin {
 
 
     /**
-     * Sets songs.
+     * Sets songs. The songs built from a library input are kept and reused, with their likes
+     * cleared, when the next run loads the same input.
      *
      * @param songInputList the song input list
      */
     public static void setSongs(final List<SongInput> songInputList) {
-        songs = new ArrayList<>();
-        for (SongInput songInput : songInputList) {
-            songs.add(new Song(songInput.getName(), songInput.getDuration(), songInput.getAlbum(),
-                    songInput.getTags(), songInput.getLyrics(), songInput.getGenre(),
-                    songInput.getReleaseYear(), songInput.getArtist()));
+        ExecutionContext context = ExecutionContext.current();
+        if (context.songCatalog != null
+                && context.songCatalog.reusableFor(songInputList, context.nextOrder)) {
+            context.songCatalog.rollback();
+            context.songStore.truncate();
+            for (Song song : context.songCatalog.getEntries()) {
+                song.resetLikes();
+            }
+            context.nextOrder += context.songCatalog.getEntries().size();
+        } else {
+            long firstOrder = context.nextOrder;
+            context.songStore = new SongStore();
+            List<Song> catalogSongs = new ArrayList<>();
+            SearchIndex<Song> catalogIndex = SearchIndex.forSongs();
+            for (SongInput songInput : songInputList) {
+                catalogSongs.add(new Song(songInput.getName(), songInput.getDuration(),
+                        songInput.getAlbum(), songInput.getTags(), songInput.getLyrics(),
+                        songInput.getGenre(), songInput.getReleaseYear(), songInput.getArtist()));
+            }
+            context.songStore.markBase();
+            catalogIndex.addAll(catalogSongs, firstOrder);
+            context.nextOrder += catalogSongs.size();
+            context.songCatalog =
+                    new Catalog<>(songInputList, catalogSongs, catalogIndex, firstOrder);
         }
+        context.songs = new ArrayList<>(context.songCatalog.getEntries());
+        context.songIndex = context.songCatalog.getIndex();
+        context.songChart = null;
+    }
+
+    /**
+     * Gets the store new songs are built into, the one of the current song catalog.
+     *
+     * @return the store
+     */
+    public static SongStore getSongStore() {
+        return ExecutionContext.current().songStore;
     }
 
     /**
-     * Remove one song.
+     * Remove songs. The song list is compacted once, however many songs go.
      *
-     * @param allSongs the all songs
+     * @param doomed the songs
      */
-    public static void removeSong(final List<Song> allSongs) {
-       for (Song song : allSongs) {
-           songs.remove(song);
-       }
+    public static void removeSongs(final Set<Song> doomed) {
+        ExecutionContext context = ExecutionContext.current();
+        context.songs.removeIf(doomed::contains);
+        for (Song song : doomed) {
+            context.songIndex.remove(song);
+            if (context.songChart != null) {
+                context.songChart.remove(song);
+            }
+            context.albumOfSong.remove(song);
+        }
+        if (context.songCatalog != null) {
+            context.songCatalog.removed(doomed);
+        }
     }
 
     /**
-     * Sets podcasts.
+     * Sets podcasts. Like songs, the podcasts built from a library input are reused by the
+     * next run that loads the same input.
      *
      * @param podcastInputList the podcast input list
      */
     public static void setPodcasts(final List<PodcastInput> podcastInputList) {
-        podcasts = new ArrayList<>();
-        for (PodcastInput podcastInput : podcastInputList) {
-            List<Episode> episodes = new ArrayList<>();
-            for (EpisodeInput episodeInput : podcastInput.getEpisodes()) {
-                episodes.add(new Episode(episodeInput.getName(),
-                        episodeInput.getDuration(),
-                        episodeInput.getDescription()));
+        ExecutionContext context = ExecutionContext.current();
+        if (context.podcastCatalog != null
+                && context.podcastCatalog.reusableFor(podcastInputList, context.nextOrder)) {
+            context.podcastCatalog.rollback();
+            context.nextOrder += context.podcastCatalog.getEntries().size();
+        } else {
+            long firstOrder = context.nextOrder;
+            List<Podcast> catalogPodcasts = new ArrayList<>();
+            SearchIndex<Podcast> catalogIndex = SearchIndex.forPodcasts();
+            for (PodcastInput podcastInput : podcastInputList) {
+                List<Episode> episodes = new ArrayList<>();
+                for (EpisodeInput episodeInput : podcastInput.getEpisodes()) {
+                    episodes.add(new Episode(episodeInput.getName(),
+                            episodeInput.getDuration(),
+                            episodeInput.getDescription()));
+                }
+                catalogPodcasts.add(
+                        new Podcast(podcastInput.getName(), podcastInput.getOwner(), episodes));
             }
-            podcasts.add(new Podcast(podcastInput.getName(), podcastInput.getOwner(), episodes));
+            catalogIndex.addAll(catalogPodcasts, firstOrder);
+            context.nextOrder += catalogPodcasts.size();
+            context.podcastCatalog = new Catalog<>(podcastInputList, catalogPodcasts, catalogIndex,
+                    firstOrder);
         }
+        context.podcasts = new ArrayList<>(context.podcastCatalog.getEntries());
+        context.podcastIndex = context.podcastCatalog.getIndex();
     }
 
     /**
@@ -120,7 +200,12 @@ public final class Admin {
      * @param podcast the podcast
      */
     public static void addPodcats(final Podcast podcast) {
-        podcasts.add(podcast);
+        ExecutionContext context = ExecutionContext.current();
+        context.podcasts.add(podcast);
+        context.podcastIndex.add(podcast, context.nextOrder++);
+        if (context.podcastCatalog != null) {
+            context.podcastCatalog.added(podcast);
+        }
     }
 
     /**
@@ -129,8 +214,16 @@ public final class Admin {
      * @param songList the song list
      */
     public static void addSongs(final List<Song> songList) {
+        ExecutionContext context = ExecutionContext.current();
         for (Song song : songList) {
-            songs.add(song);
+            context.songs.add(song);
+            context.songIndex.add(song, context.nextOrder++);
+            if (context.songCatalog != null) {
+                context.songCatalog.added(song);
+            }
+            if (context.songChart != null) {
+                context.songChart.add(song, context.songIndex.orderOf(song));
+            }
         }
     }
 
@@ -141,7 +234,7 @@ public final class Admin {
      * @return the songs
      */
     public static List<Song> getSongs() {
-        return new ArrayList<>(songs);
+        return Collections.unmodifiableList(ExecutionContext.current().songs);
     }
 
     /**
@@ -150,20 +243,245 @@ public final class Admin {
      * @return the podcasts
      */
     public static List<Podcast> getPodcasts() {
-        return new ArrayList<>(podcasts);
+        return Collections.unmodifiableList(ExecutionContext.current().podcasts);
     }
 
     /**
-     * Gets playlists.
+     * Gets playlists. The snapshot is only rebuilt after a playlist mutation.
      *
      * @return the playlists
      */
     public static List<Playlist> getPlaylists() {
-        List<Playlist> playlists = new ArrayList<>();
-        for (User user : users) {
-            playlists.addAll(user.getPlaylists());
+        ExecutionContext context = ExecutionContext.current();
+        if (context.playlistsSnapshot == null) {
+            List<Playlist> playlists = new ArrayList<>();
+            for (User user : context.users) {
+                playlists.addAll(user.getPlaylists());
+            }
+            context.playlistsSnapshot = Collections.unmodifiableList(playlists);
+        }
+        return context.playlistsSnapshot;
+    }
+
+    /**
+     * Registers a newly created playlist.
+     *
+     * @param owner the owner
+     * @param playlist the playlist
+     */
+    public static void addPlaylist(final User owner, final Playlist playlist) {
+        ExecutionContext context = ExecutionContext.current();
+        invalidatePlaylists();
+        context.playlistIndex.add(playlist, ownedOrder(owner));
+        context.references.playlistAdded(playlist);
+        if (context.playlistChart != null) {
+            context.playlistChart.add(playlist, context.playlistIndex.orderOf(playlist));
         }
-        return playlists;
+    }
+
+    /**
+     * Registers a newly uploaded album.
+     *
+     * @param owner the owner
+     * @param album the album
+     */
+    public static void addAlbum(final User owner, final Album album) {
+        ExecutionContext context = ExecutionContext.current();
+        invalidateAlbums();
+        context.albumIndex.add(album, ownedOrder(owner));
+        for (Song song : album.getSongs()) {
+            context.albumOfSong.put(song, album);
+        }
+        if (context.albumChart != null) {
+            context.albumChart.add(album, context.albumIndex.orderOf(album));
+        }
+        rerank(context.artistChart, owner, () -> owner.addArtistLikes(album.getTotalLikes()));
+    }
+
+    /**
+     * Unregisters a removed album.
+     *
+     * @param owner the owner
+     * @param album the album
+     */
+    public static void removeAlbum(final User owner, final Album album) {
+        ExecutionContext context = ExecutionContext.current();
+        invalidateAlbums();
+        context.albumIndex.remove(album);
+        forgetAlbum(album);
+        rerank(context.artistChart, owner, () -> owner.addArtistLikes(-album.getTotalLikes()));
+    }
+
+    private static void forgetAlbum(final Album album) {
+        ExecutionContext context = ExecutionContext.current();
+        for (Song song : album.getSongs()) {
+            context.albumOfSong.remove(song, album);
+        }
+        if (context.albumChart != null) {
+            context.albumChart.remove(album);
+        }
+    }
+
+    /**
+     * Order key of an entry owned by a user: grouped by owner, then by creation.
+     *
+     * @param owner the owner
+     * @return the order key
+     */
+    private static long ownedOrder(final User owner) {
+        ExecutionContext context = ExecutionContext.current();
+        return (context.userOrder.getOrDefault(owner, 0L) << Integer.SIZE) | context.nextOrder++;
+    }
+
+    private static void invalidatePlaylists() {
+        ExecutionContext.current().playlistsSnapshot = null;
+    }
+
+    private static void invalidateAlbums() {
+        ExecutionContext.current().albumsSnapshot = null;
+    }
+
+    /**
+     * Records a song added to or removed from a playlist.
+     *
+     * @param playlist the playlist
+     * @param song     the song
+     * @param delta    1 if the song was added, -1 if it was removed
+     */
+    public static void playlistChanged(final Playlist playlist, final Song song,
+                                       final int delta) {
+        ExecutionContext.current().references.playlistChanged(playlist, song, delta);
+    }
+
+    /**
+     * Whether a playlist player is on a song that a playlist of the run lists.
+     *
+     * @return the boolean
+     */
+    public static boolean isPlayingListedSong() {
+        return ExecutionContext.current().references.playsListedSong();
+    }
+
+    /**
+     * Records what a player is playing now.
+     *
+     * @param player the player
+     */
+    public static void playerChanged(final Player player) {
+        ExecutionContext.current().references.playerChanged(player);
+    }
+
+    /**
+     * Records what a page is showing now.
+     *
+     * @param page the page
+     */
+    public static void pageChanged(final Page page) {
+        ExecutionContext.current().references.pageChanged(page);
+    }
+
+    /**
+     * Records a user moving to another page.
+     *
+     * @param user    the user
+     * @param oldPage the page the user was on, or null
+     * @param newPage the page the user is on now
+     */
+    public static void pageMoved(final User user, final Page oldPage, final Page newPage) {
+        ExecutionContext.current().references.pageMoved(user, oldPage, newPage);
+    }
+
+    /**
+     * Whether a user is playing a song, or an album track, with the given name.
+     *
+     * @param name the name
+     * @return the boolean
+     */
+    public static boolean isPlayingTrack(final String name) {
+        return ExecutionContext.current().references.playsTrack(name);
+    }
+
+    /**
+     * Whether a user is playing an episode with the given name.
+     *
+     * @param name the name
+     * @return the boolean
+     */
+    public static boolean isPlayingEpisode(final String name) {
+        return ExecutionContext.current().references.playsEpisode(name);
+    }
+
+    /**
+     * Gets the players of the users that are playing a playlist.
+     *
+     * @return the players
+     */
+    public static Set<Player> getPlaylistPlayers() {
+        return ExecutionContext.current().references.getPlaylistPlayers();
+    }
+
+    /**
+     * Whether a user is on the artist or host page of the given user.
+     *
+     * @param username the username
+     * @return the boolean
+     */
+    public static boolean isPageViewed(final String username) {
+        return ExecutionContext.current().references.isViewed(username);
+    }
+
+    /**
+     * Gets the song search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Song> getSongIndex() {
+        return ExecutionContext.current().songIndex;
+    }
+
+    /**
+     * Gets the podcast search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Podcast> getPodcastIndex() {
+        return ExecutionContext.current().podcastIndex;
+    }
+
+    /**
+     * Gets the playlist search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Playlist> getPlaylistIndex() {
+        return ExecutionContext.current().playlistIndex;
+    }
+
+    /**
+     * Gets the album search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Album> getAlbumIndex() {
+        return ExecutionContext.current().albumIndex;
+    }
+
+    /**
+     * Gets the artist search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<User> getArtistIndex() {
+        return ExecutionContext.current().artistIndex;
+    }
+
+    /**
+     * Gets the host search index.
+     *
+     * @return the index
+     */
+    public static SearchIndex<User> getHostIndex() {
+        return ExecutionContext.current().hostIndex;
     }
 
     /**
@@ -173,83 +491,218 @@ public final class Admin {
      * @return the user
      */
     public static User getUser(final String username) {
-        for (User user : users) {
-            if (username != null && user.getUsername().equals(username)) {
-                return user;
-            }
+        ExecutionContext context = ExecutionContext.current();
+        if (username == null) {
+            return null;
+        }
+        User user = context.usersByName.get(username);
+        if (user != null) {
+            user.syncTime(context.timestamp);
+        }
+        return user;
+    }
+
+    /**
+     * Brings every player up to the current timestamp, for commands that look at or change
+     * what other users are listening to.
+     */
+    public static void syncPlayers() {
+        ExecutionContext context = ExecutionContext.current();
+        for (User user : context.users) {
+            user.syncTime(context.timestamp);
         }
-        return null;
     }
 
     /**
-     * Update timestamp.
+     * Registers a user of the given type in the lookup indexes.
      *
-     * @param newTimestamp the new timestamp
+     * @param user the user
+     * @param userType the user type
      */
-    public static void updateTimestamp(final int newTimestamp) {
-        int elapsed = newTimestamp - timestamp;
-        timestamp = newTimestamp;
-        if (elapsed == 0) {
-            return;
+    private static void indexUser(final User user, final Enums.UserType userType) {
+        ExecutionContext context = ExecutionContext.current();
+        context.usersByName.putIfAbsent(user.getUsername(), user);
+        context.usersByType.computeIfAbsent(userType, type -> new ArrayList<>()).add(user);
+        long order = context.nextOrder++;
+        context.userOrder.put(user, order);
+        context.references.join(user);
+        if (userType == ARTIST) {
+            context.artistIndex.add(user, order);
+            if (context.artistChart != null) {
+                context.artistChart.add(user, order);
+            }
+        } else if (userType == HOST) {
+            context.hostIndex.add(user, order);
         }
+    }
 
-        for (User user : users) {
-            if (user.isOnline()) {
-                user.simulateTime(elapsed);
+    /**
+     * Removes a user from the lookup indexes.
+     *
+     * @param user the user
+     */
+    private static void unindexUser(final User user) {
+        ExecutionContext context = ExecutionContext.current();
+        invalidatePlaylists();
+        invalidateAlbums();
+        for (Playlist playlist : user.getPlaylists()) {
+            context.playlistIndex.remove(playlist);
+            context.references.playlistRemoved(playlist);
+            if (context.playlistChart != null) {
+                context.playlistChart.remove(playlist);
             }
         }
+        for (Playlist playlist : user.getFollowedPlaylists()) {
+            changeFollowers(playlist, playlist::decreaseFollowers);
+        }
+        user.getFollowedPlaylists().clear();
+        context.references.leave(user);
+        for (Album album : user.getAlbums()) {
+            context.albumIndex.remove(album);
+            forgetAlbum(album);
+        }
+        if (context.artistChart != null) {
+            context.artistChart.remove(user);
+        }
+        context.artistIndex.remove(user);
+        context.hostIndex.remove(user);
+        context.userOrder.remove(user);
+        context.usersByName.remove(user.getUsername(), user);
+        if (user.getUserType() != null) {
+            List<User> sameType =
+                    context.usersByType.get(Enums.UserType.valueOf(user.getUserType()));
+            if (sameType != null) {
+                sameType.remove(user);
+            }
+        }
+    }
+
+    /**
+     * Update timestamp. Players are not advanced here, each one catches up when its user is
+     * next looked up (see {@link #getUser(String)} and {@link #syncPlayers()}).
+     *
+     * @param newTimestamp the new timestamp
+     */
+    public static void updateTimestamp(final int newTimestamp) {
+        ExecutionContext.current().timestamp = newTimestamp;
     }
 
     /**
-     * Gets top 5 songs.
+     * Gets top 5 songs. The chart is built on the first call and kept up to date afterwards.
      *
      * @return the top 5 songs
      */
     public static List<String> getTop5Songs() {
-        List<Song> sortedSongs = new ArrayList<>(songs);
-        sortedSongs.sort(Comparator.comparingInt(Song::getLikes).reversed());
-        List<String> topSongs = new ArrayList<>();
-        int count = 0;
-        for (Song song : sortedSongs) {
-            if (count >= LIMIT) {
-                break;
+        ExecutionContext context = ExecutionContext.current();
+        if (context.songChart == null) {
+            context.songChart = new Chart<>(Comparator.comparingInt(Song::getLikes).reversed());
+            for (Song song : context.songs) {
+                context.songChart.add(song, context.songIndex.orderOf(song));
             }
-            topSongs.add(song.getName());
-            count++;
         }
-        return topSongs;
+        return names(context.songChart.top(LIMIT));
+    }
+
+    private static List<String> names(final List<? extends LibraryEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (LibraryEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Applies a change to the likes of a song. The difference is added to the album holding
+     * the song and to its artist, and all three are moved in their charts. Users liking songs
+     * concurrently take turns on the context.
+     *
+     * @param song   the song
+     * @param change the change
+     */
+    public static void changeLikes(final Song song, final Runnable change) {
+        ExecutionContext context = ExecutionContext.current();
+        synchronized (context) {
+            int before = song.getLikes();
+            rerank(context.songChart, song, change);
+            int delta = song.getLikes() - before;
+
+            Album album = context.albumOfSong.get(song);
+            if (album == null || delta == 0) {
+                return;
+            }
+            rerank(context.albumChart, album, () -> album.addLikes(delta));
+            User artist = context.usersByName.get(album.getOwner());
+            if (artist != null) {
+                rerank(context.artistChart, artist, () -> artist.addArtistLikes(delta));
+            }
+        }
+    }
+
+    private static <T> void rerank(final Chart<T> chart, final T entry, final Runnable change) {
+        if (chart == null) {
+            change.run();
+        } else {
+            chart.update(entry, change);
+        }
+    }
+
+    /**
+     * Applies a change to the followers of a playlist, moving the playlist in the playlist
+     * chart if there is one.
+     *
+     * @param playlist the playlist
+     * @param change   the change
+     */
+    public static void changeFollowers(final Playlist playlist, final Runnable change) {
+        rerank(ExecutionContext.current().playlistChart, playlist, change);
     }
 
     /**
-     * Gets top 5 playlists.
+     * Gets top 5 playlists. The chart is built on the first call and kept up to date
+     * afterwards.
      *
      * @return the top 5 playlists
      */
     public static List<String> getTop5Playlists() {
-        List<Playlist> sortedPlaylists = new ArrayList<>(getPlaylists());
-        sortedPlaylists.sort(Comparator.comparingInt(Playlist::getFollowers)
-                .reversed()
-                .thenComparing(Playlist::getTimestamp, Comparator.naturalOrder()));
-        List<String> topPlaylists = new ArrayList<>();
-        int count = 0;
-        for (Playlist playlist : sortedPlaylists) {
-            if (count >= LIMIT) {
-                break;
+        ExecutionContext context = ExecutionContext.current();
+        if (context.playlistChart == null) {
+            context.playlistChart = new Chart<>(Comparator.comparingInt(Playlist::getFollowers)
+                    .reversed()
+                    .thenComparing(Playlist::getTimestamp, Comparator.naturalOrder()));
+            for (Playlist playlist : getPlaylists()) {
+                context.playlistChart.add(playlist, context.playlistIndex.orderOf(playlist));
             }
-            topPlaylists.add(playlist.getName());
-            count++;
         }
-        return topPlaylists;
+        return names(context.playlistChart.top(LIMIT));
     }
 
     /**
      * Reset.
      */
     public static void reset() {
-        users = new ArrayList<>();
-        songs = new ArrayList<>();
-        podcasts = new ArrayList<>();
-        timestamp = 0;
+        ExecutionContext context = ExecutionContext.current();
+        context.users = new ArrayList<>();
+        context.usersByName = new HashMap<>();
+        context.usersByType = new EnumMap<>(Enums.UserType.class);
+        context.songs = new ArrayList<>();
+        context.podcasts = new ArrayList<>();
+        invalidatePlaylists();
+        invalidateAlbums();
+        context.songIndex = SearchIndex.forSongs();
+        context.podcastIndex = SearchIndex.forPodcasts();
+        context.playlistIndex = SearchIndex.forPlaylists();
+        context.albumIndex = SearchIndex.forAlbums();
+        context.artistIndex = SearchIndex.forUsers();
+        context.hostIndex = SearchIndex.forUsers();
+        context.userOrder = new HashMap<>();
+        context.albumOfSong = new HashMap<>();
+        context.songChart = null;
+        context.playlistChart = null;
+        context.albumChart = null;
+        context.artistChart = null;
+        context.references = new ReferenceIndex();
+        context.nextOrder = 0;
+        context.timestamp = 0;
     }
 
     /**
@@ -258,8 +711,9 @@ public final class Admin {
      * @return online users
      */
     public static List<String> getOnlineUsers() {
+        ExecutionContext context = ExecutionContext.current();
         List<String> onlineUsers = new ArrayList<>();
-        for (User user : users) {
+        for (User user : context.users) {
             if (user.isOnline() && user.getUserType() == null) {
                 onlineUsers.add(user.getUsername());
             }
@@ -273,12 +727,13 @@ public final class Admin {
      * @param commandInput the commandInput
      */
     public static void addUser(final CommandInput commandInput) {
+        ExecutionContext context = ExecutionContext.current();
         User existingUser = getUser(commandInput.getUsername());
 
         if (existingUser == null) {
             User newUser = new User(commandInput.getUsername(), commandInput.getAge(),
                     commandInput.getCity());
-            users.add(newUser);
+            context.users.add(newUser);
 
             switch (commandInput.getType()) {
                 case "user":
@@ -306,8 +761,10 @@ public final class Admin {
                     newUser.setPage(newpagehost);
                     break;
                 default:
-                    users.remove(newUser);
+                    context.users.remove(newUser);
+                    return;
             }
+            indexUser(newUser, Enums.UserType.valueOf(newUser.getUserType()));
         }
     }
 
@@ -317,16 +774,8 @@ public final class Admin {
      * @return artists
      */
     public static List<User> getArtists() {
-        List<User> artists = new ArrayList<>();
-        for (User user : users) {
-            if (user.getUserType() != null) {
-                Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
-                if (userType == ARTIST) {
-                    artists.add(user);
-                }
-            }
-        }
-        return artists;
+        return Collections.unmodifiableList(
+                ExecutionContext.current().usersByType.getOrDefault(ARTIST, List.of()));
     }
 
     /**
@@ -335,29 +784,25 @@ public final class Admin {
      * @return hosts
      */
     public static List<User> getHosts() {
-        List<User> hosts = new ArrayList<>();
-        for (User user : users) {
-            if (user.getUserType() != null) {
-                Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
-                if (userType == HOST) {
-                    hosts.add(user);
-                }
-            }
-        }
-        return hosts;
+        return Collections.unmodifiableList(
+                ExecutionContext.current().usersByType.getOrDefault(HOST, List.of()));
     }
 
     /**
-     * Get all albums.
+     * Get all albums. The snapshot is only rebuilt after an album mutation.
      *
      * @return albums
      */
     public static List<Album> getAlbums() {
-        List<Album> allAlbums = new ArrayList<>();
-        for (User user : users) {
-            allAlbums.addAll(user.getAlbums());
+        ExecutionContext context = ExecutionContext.current();
+        if (context.albumsSnapshot == null) {
+            List<Album> allAlbums = new ArrayList<>();
+            for (User user : context.users) {
+                allAlbums.addAll(user.getAlbums());
+            }
+            context.albumsSnapshot = Collections.unmodifiableList(allAlbums);
         }
-        return allAlbums;
+        return context.albumsSnapshot;
     }
 
     /**
@@ -366,61 +811,42 @@ public final class Admin {
      * @return users
      */
     public static List<User> getUsers() {
-        List<User> allUsers = new ArrayList<>();
-        for (User user : users) {
-            allUsers.add(user);
-        }
-        return allUsers;
+        return Collections.unmodifiableList(ExecutionContext.current().users);
     }
 
     /**
-     * Get top 5 albums.
+     * Get top 5 albums. The chart is built on the first call and kept up to date afterwards.
      *
      * @return top 5 albums
      */
     public static List<String> getTop5Albums() {
-        List<Album> allAlbums = new ArrayList<>();
-        for (Album album : getAlbums()) {
-            int totalLikesInAlbum = album.getTotalLikes();
-            album.setTotalLikes(totalLikesInAlbum);
-            allAlbums.add(album);
-        }
-        allAlbums.sort(
-                Comparator.comparingInt(Album::getTotalLikes).reversed()
-                        .thenComparing(Album::getName)
-        );
-        // limit just first 5 albums from allAlbums
-        List<Album> top5Albums = allAlbums.subList(0, Math.min(LIMIT, allAlbums.size()));
-
-        List<String> top5AlbumNames = new ArrayList<>();
-        for (Album album : top5Albums) {
-            top5AlbumNames.add(album.getName());
+        ExecutionContext context = ExecutionContext.current();
+        if (context.albumChart == null) {
+            context.albumChart = new Chart<>(
+                    Comparator.comparingInt(Album::getTotalLikes).reversed()
+                            .thenComparing(Album::getName));
+            for (Album album : getAlbums()) {
+                context.albumChart.add(album, context.albumIndex.orderOf(album));
+            }
         }
-
-        return top5AlbumNames;
+        return names(context.albumChart.top(LIMIT));
     }
 
     /**
-     * Get top 5 artists.
+     * Get top 5 artists. The chart is built on the first call and kept up to date afterwards.
      *
      * @return top 5 artists
      */
     public static List<String> getTop5Artist() {
-        List<User> artists = new ArrayList<>();
-        for (User user : getArtists()) {
-            for (Album album : user.getAlbums()) {
-                int totalLikesInAlbum = album.getTotalLikes();
-                user.setArtistsLikes(user.getArtistLikes() + totalLikesInAlbum);
+        ExecutionContext context = ExecutionContext.current();
+        if (context.artistChart == null) {
+            context.artistChart =
+                    new Chart<>(Comparator.comparingInt(User::getArtistLikes).reversed());
+            for (User artist : getArtists()) {
+                context.artistChart.add(artist, context.userOrder.get(artist));
             }
-            artists.add(user);
-        }
-        artists.sort(Comparator.comparingInt(User::getArtistLikes).reversed());
-        List<User> top5Artists = artists.subList(0, Math.min(LIMIT, artists.size()));
-        List<String> top5ArtistsName = new ArrayList<>();
-        for (User user : top5Artists) {
-            top5ArtistsName.add(user.getName());
         }
-        return top5ArtistsName;
+        return names(context.artistChart.top(LIMIT));
     }
 
     /**
@@ -429,11 +855,12 @@ public final class Admin {
      * @return all users
      */
     public static List<String> getAllUsers() {
+        ExecutionContext context = ExecutionContext.current();
         List<String> normalUsers = new ArrayList<>();
         List<String> artists = new ArrayList<>();
         List<String> hosts = new ArrayList<>();
 
-        for (User user : users) {
+        for (User user : context.users) {
             String userString = user.getUsername();
             if (user.getUserType() == null
                     || Enums.UserType.NORMAL.equals(Enums.UserType.valueOf(user.getUserType()))) {
@@ -460,40 +887,32 @@ public final class Admin {
      * @return the message for the user
      */
     public static String deleteUser(final CommandInput commandInput) {
+        ExecutionContext context = ExecutionContext.current();
 
         User user = getUser(commandInput.getUsername());
+        syncPlayers();
 
         if ((user.getUserType() == null
                 || Enums.UserType.NORMAL.equals(Enums.UserType.valueOf(user.getUserType())))
-                && user.checkNormal(user) &&  user.checkPlaylist(user)) {
-            for (User userFromAdmin : users) {
-                for (Playlist playlist : getPlaylists()) {
-                    if (playlist.getOwner().equals(user.getUsername())) {
-                        if (playlist.getFollowers() > 0) {
-                            playlist.decreaseFollowers();
-                        }
-                        userFromAdmin.removePlaylist(playlist.getName());
-                    }
-                }
-            }
-            users.remove(user);
+                && user.checkPlaylist(user)) {
+            new CascadeDeletion(user).playlists().apply(context.users);
+            context.users.remove(user);
+            unindexUser(user);
             return commandInput.getUsername() + " was successfully deleted.";
         } else if ((Enums.UserType.ARTIST.equals(Enums.UserType.valueOf(user.getUserType())))
                 && user.checkArtist(user)
                 && user.checkPage(user) && user.checkPlaylist(user)) {
-            for (Album album : getAlbums()) {
-                user.removeAlbum(album.getName());
-            }
-            users.remove(user);
+            new CascadeDeletion(user).releases().apply(context.users);
+            context.users.remove(user);
+            unindexUser(user);
             return commandInput.getUsername() + " was successfully deleted.";
         } else if ((Enums.UserType.HOST.equals(Enums.UserType.valueOf(user.getUserType())))
                 && user.checkHost(user)
                 && user.checkPage(user)) {
             user.checkPage(user);
-            for (Podcast podcast : getPodcasts()) {
-                user.removePodcast(podcast.getName());
-            }
-            users.remove(user);
+            new CascadeDeletion(user).releases().apply(context.users);
+            context.users.remove(user);
+            unindexUser(user);
             return commandInput.getUsername() + " was successfully deleted.";
         }
             return commandInput.getUsername() + " can't be deleted.";
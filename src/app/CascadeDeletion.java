@@ -0,0 +1,90 @@
+package app;
+
+import app.audio.Collections.Album;
+import app.audio.Collections.Playlist;
+import app.audio.Collections.Podcast;
+import app.audio.Files.Song;
+import app.user.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What goes away with a deleted user. Everything tied to the user is collected first, then
+ * every user and every library list is swept once, so a deletion costs the size of the lists
+ * it touches rather than their product.
+ */
+final class CascadeDeletion {
+    private final User owner;
+    private final Set<Playlist> playlists = new HashSet<>();
+    private final List<Album> albums = new ArrayList<>();
+    private final Set<Song> songs = new HashSet<>();
+    private final List<Podcast> podcasts = new ArrayList<>();
+
+    /**
+     * Instantiates a new cascade deletion.
+     *
+     * @param owner the deleted user
+     */
+    CascadeDeletion(final User owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Collects the playlists made by the deleted user, so that their followers drop them.
+     *
+     * @return this cascade
+     */
+    CascadeDeletion playlists() {
+        playlists.addAll(owner.getPlaylists());
+        return this;
+    }
+
+    /**
+     * Collects the albums, with their songs, and the podcasts of the deleted user. As when they
+     * are removed one by one, they all stay while anyone is listening to anything.
+     *
+     * @return this cascade
+     */
+    CascadeDeletion releases() {
+        for (User user : Admin.getUsers()) {
+            if (user.isPlaying()) {
+                return this;
+            }
+        }
+        for (Album album : owner.getAlbums()) {
+            albums.add(album);
+            songs.addAll(album.getSongs());
+        }
+        podcasts.addAll(owner.getPodcasts());
+        return this;
+    }
+
+    /**
+     * Drops everything collected from the users and the library.
+     *
+     * @param users the users
+     */
+    void apply(final List<User> users) {
+        for (User user : users) {
+            if (!songs.isEmpty()) {
+                user.deleteSongs(songs);
+            }
+            if (!playlists.isEmpty()) {
+                user.removePlaylists(playlists);
+            }
+        }
+        if (!albums.isEmpty()) {
+            owner.getAlbums().clear();
+            for (Album album : albums) {
+                Admin.removeAlbum(owner, album);
+            }
+            Admin.removeSongs(songs);
+        }
+        if (!podcasts.isEmpty()) {
+            owner.getPodcasts().clear();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package app;
+
+import app.audio.LibraryEntry;
+import app.searchBar.SearchIndex;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Library entries built once from the library file and shared by every run that loads the same
+ * library. Whatever a run adds on top is remembered, so the next run can drop it again instead
+ * of building the entries and their index from scratch.
+ *
+ * @param <T> the entry type
+ */
+@Getter
+final class Catalog<T extends LibraryEntry> {
+    private final Object source;
+    private final List<T> entries;
+    private final SearchIndex<T> index;
+    private final long firstOrder;
+    private final List<T> added = new ArrayList<>();
+    private boolean dirty;
+
+    /**
+     * Instantiates a new Catalog.
+     *
+     * @param source     the input the entries were built from
+     * @param entries    the entries
+     * @param index      the index holding the entries
+     * @param firstOrder the order key of the first entry
+     */
+    Catalog(final Object source, final List<T> entries, final SearchIndex<T> index,
+            final long firstOrder) {
+        this.source = source;
+        this.entries = entries;
+        this.index = index;
+        this.firstOrder = firstOrder;
+    }
+
+    /**
+     * Whether this catalog can serve a run loading the given input at the given order key.
+     *
+     * @param input the input
+     * @param order the next order key
+     * @return the boolean
+     */
+    boolean reusableFor(final Object input, final long order) {
+        return !dirty && source == input && firstOrder == order;
+    }
+
+    /**
+     * Records an entry a run added to the index.
+     *
+     * @param entry the entry
+     */
+    void added(final T entry) {
+        added.add(entry);
+    }
+
+    /**
+     * Records entries a run removed from the index. Removing a catalog entry spoils the
+     * catalog, the next run rebuilds it.
+     *
+     * @param entries the entries
+     */
+    void removed(final Set<T> entries) {
+        int before = added.size();
+        added.removeIf(entries::contains);
+        if (before - added.size() < entries.size()) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Drops the entries the last run added, leaving only the catalog entries indexed.
+     */
+    void rollback() {
+        for (T entry : added) {
+            index.remove(entry);
+        }
+        added.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Entries ranked by a score that changes over time, ties going to the lower order key. An entry
+ * is taken out of the ranking while its score changes and put back afterwards, so keeping the
+ * ranking costs O(log n) per change and reading the top of it never sorts.
+ *
+ * @param <T> the entry type
+ */
+final class Chart<T> {
+    private final Map<T, Long> orderOf = new HashMap<>();
+    private final TreeSet<T> ranking;
+
+    /**
+     * Instantiates a new Chart.
+     *
+     * @param rank how entries compare, best first, before their order keys are looked at
+     */
+    Chart(final Comparator<T> rank) {
+        this.ranking = new TreeSet<>(rank.thenComparingLong(orderOf::get));
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param entry the entry
+     * @param order the order key
+     */
+    void add(final T entry, final long order) {
+        if (orderOf.putIfAbsent(entry, order) == null) {
+            ranking.add(entry);
+        }
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param entry the entry
+     */
+    void remove(final T entry) {
+        if (orderOf.containsKey(entry)) {
+            ranking.remove(entry);
+            orderOf.remove(entry);
+        }
+    }
+
+    /**
+     * Applies a change to the score of an entry and moves the entry to its new rank.
+     *
+     * @param entry  the entry
+     * @param change the change
+     */
+    void update(final T entry, final Runnable change) {
+        if (!orderOf.containsKey(entry)) {
+            change.run();
+            return;
+        }
+        ranking.remove(entry);
+        change.run();
+        ranking.add(entry);
+    }
+
+    /**
+     * Gets the best ranked entries.
+     *
+     * @param limit how many entries
+     * @return the entries
+     */
+    List<T> top(final int limit) {
+        List<T> top = new ArrayList<>();
+        for (T entry : ranking) {
+            if (top.size() >= limit) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+}
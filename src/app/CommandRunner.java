@@ -36,14 +36,28 @@ public final class CommandRunner {
     private CommandRunner() {
     }
 
+    /**
+     * Starts the output of a user command with its command, user and timestamp fields.
+     *
+     * @param commandInput the command input
+     * @return the object node
+     */
+    private static ObjectNode response(final CommandInput commandInput) {
+        ObjectNode objectNode = objectMapper.createObjectNode();
+        objectNode.put("command", commandInput.getCommand());
+        objectNode.put("user", commandInput.getUsername());
+        objectNode.put("timestamp", commandInput.getTimestamp());
+        return objectNode;
+    }
+
     /**
      * Search object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode search(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode search(final CommandInput commandInput, final User user) {
         Filters filters = new Filters(commandInput.getFilters());
         String type = commandInput.getType();
         ObjectNode objectNode = objectMapper.createObjectNode();
@@ -72,20 +86,17 @@ public final class CommandRunner {
      * Select object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode select(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode select(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         String message = user.select(commandInput.getItemNumber());
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -95,20 +106,17 @@ public final class CommandRunner {
      * Load object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode load(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode load(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         String message = user.load();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -118,19 +126,16 @@ public final class CommandRunner {
      * Play pause object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode playPause(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode playPause(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
         String message = user.playPause();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -140,20 +145,17 @@ public final class CommandRunner {
      * Repeat object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode repeat(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode repeat(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         String message = user.repeat();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -163,20 +165,17 @@ public final class CommandRunner {
      * Shuffle object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode shuffle(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode shuffle(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
         Integer seed = commandInput.getSeed();
         String message = user.shuffle(seed);
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -186,16 +185,13 @@ public final class CommandRunner {
      * Forward object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode forward(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode forward(final CommandInput commandInput, final User user) {
         String message = user.forward();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -205,16 +201,13 @@ public final class CommandRunner {
      * Backward object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode backward(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode backward(final CommandInput commandInput, final User user) {
         String message = user.backward();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -224,10 +217,10 @@ public final class CommandRunner {
      * Like object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode like(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode like(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
@@ -238,10 +231,7 @@ public final class CommandRunner {
             message = commandInput.getUsername() + " is offline.";
         }
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -251,19 +241,16 @@ public final class CommandRunner {
      * Next object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode next(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode next(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
         String message = user.next();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -273,20 +260,17 @@ public final class CommandRunner {
      * Prev object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode prev(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode prev(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         String message = user.prev();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -296,17 +280,14 @@ public final class CommandRunner {
      * Create playlist object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode createPlaylist(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode createPlaylist(final CommandInput commandInput, final User user) {
         String message = user.createPlaylist(commandInput.getPlaylistName(),
                 commandInput.getTimestamp());
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -316,16 +297,14 @@ public final class CommandRunner {
      * Add remove in playlist object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode addRemoveInPlaylist(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode addRemoveInPlaylist(final CommandInput commandInput,
+                                                 final User user) {
         String message = user.addRemoveInPlaylist(commandInput.getPlaylistId());
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -335,19 +314,16 @@ public final class CommandRunner {
      * Switch visibility object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode switchVisibility(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode switchVisibility(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
         String message = user.switchPlaylistVisibility(commandInput.getPlaylistId());
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -357,20 +333,17 @@ public final class CommandRunner {
      * Show playlists object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode showPlaylists(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode showPlaylists(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         ArrayList<PlaylistOutput> playlists = user.showPlaylists();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("result", objectMapper.valueToTree(playlists));
 
         return objectNode;
@@ -380,10 +353,10 @@ public final class CommandRunner {
      * Follow object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode follow(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode follow(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
@@ -391,10 +364,7 @@ public final class CommandRunner {
         String message = user.follow();
 
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("message", message);
 
         return objectNode;
@@ -404,20 +374,17 @@ public final class CommandRunner {
      * Status object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode status(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode status(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
 
         PlayerStats stats = user.getPlayerStats();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("stats", objectMapper.valueToTree(stats));
 
         return objectNode;
@@ -427,19 +394,16 @@ public final class CommandRunner {
      * Show liked songs object node.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode showLikedSongs(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode showLikedSongs(final CommandInput commandInput, final User user) {
         if (user == null) {
             return null;
         }
         ArrayList<String> songs = user.showPreferedSongsForCommand();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("result", objectMapper.valueToTree(songs));
 
         return objectNode;
@@ -449,16 +413,13 @@ public final class CommandRunner {
      * Gets preferred genre.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the preferred genre
      */
-    public static ObjectNode getPreferredGenre(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode getPreferredGenre(final CommandInput commandInput, final User user) {
         String preferredGenre = user.getPreferredGenre();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("result", objectMapper.valueToTree(preferredGenre));
 
         return objectNode;
@@ -570,15 +531,12 @@ public final class CommandRunner {
      * Switch connection status.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode switchConnectionStatus(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode switchConnectionStatus(final CommandInput commandInput,
+                                                    final User user) {
+        ObjectNode objectNode = response(commandInput);
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
                     + " doesn't exist.");
@@ -594,15 +552,11 @@ public final class CommandRunner {
      * Add users.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode addUsers(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addUsers(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         if (user != null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
                     + " is already taken.");
@@ -618,15 +572,11 @@ public final class CommandRunner {
      * Add album.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode addAlbum(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-
-        User user = Admin.getUser(commandInput.getUsername());
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addAlbum(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
 
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
@@ -687,14 +637,11 @@ public final class CommandRunner {
      * Add podcast.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return object node
      */
-    public static ObjectNode addPodcast(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        User user = Admin.getUser(commandInput.getUsername());
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addPodcast(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
 
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
@@ -753,15 +700,11 @@ public final class CommandRunner {
      * Add event.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return object node
      */
-    public static ObjectNode addEvent(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        User user = Admin.getUser(commandInput.getUsername());
-
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addEvent(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
 
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
@@ -803,15 +746,11 @@ public final class CommandRunner {
      * Add merch.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return object node
      */
-    public static ObjectNode addMerch(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        User user = Admin.getUser(commandInput.getUsername());
-
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addMerch(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
                     + " doesn't exist.");
@@ -852,15 +791,11 @@ public final class CommandRunner {
      * Add announcement
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the objdect node
      */
-    public static ObjectNode addAnnouncement(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        User user = Admin.getUser(commandInput.getUsername());
-
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode addAnnouncement(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
                     + " doesn't exist.");
@@ -897,11 +832,11 @@ public final class CommandRunner {
      * Print current page
      *
      * @param commandInput the command input
+     * @param user the user
      * @return object node
      */
-    public static ObjectNode printCurrentPage(final CommandInput commandInput) {
+    public static ObjectNode printCurrentPage(final CommandInput commandInput, final User user) {
         ObjectNode objectNode = objectMapper.createObjectNode();
-        User user = Admin.getUser(commandInput.getUsername());
         if (user == null) {
             return null;
         }
@@ -926,15 +861,11 @@ public final class CommandRunner {
      * Change page.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode changePage(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode changePage(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         String message = user.changePage(commandInput);
         objectNode.put("message", message);
 
@@ -945,16 +876,13 @@ public final class CommandRunner {
      * Show album
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode showAlbum(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode showAlbum(final CommandInput commandInput, final User user) {
         ArrayList<AlbumOutput> albums = user.showUsersAlbums();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("result", objectMapper.valueToTree(albums));
 
         return objectNode;
@@ -964,16 +892,13 @@ public final class CommandRunner {
      * Show podcasts
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode showPodcasts(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
+    public static ObjectNode showPodcasts(final CommandInput commandInput, final User user) {
         ArrayList<PodcastOutput> podcasts = user.showUsersPodcasts();
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+        ObjectNode objectNode = response(commandInput);
         objectNode.put("result", objectMapper.valueToTree(podcasts));
 
         return objectNode;
@@ -983,15 +908,12 @@ public final class CommandRunner {
      * Delete user.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode deleteUser(final CommandInput commandInput) {
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode deleteUser(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         String message;
-        User user = Admin.getUser(commandInput.getUsername());
         if (user == null) {
             message = "The username " + commandInput.getUsername()
                     + " doesn't exist.";
@@ -1007,14 +929,11 @@ public final class CommandRunner {
      * Remove podcast.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return object node
      */
-    public static ObjectNode removePodcast(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode removePodcast(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
 
         if (userType == null || userType != Enums.UserType.HOST) {
@@ -1037,14 +956,11 @@ public final class CommandRunner {
      * Remove announcement.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode removeAnnouncement(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode removeAnnouncement(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
 
         if (userType == null || userType != Enums.UserType.HOST) {
@@ -1067,14 +983,11 @@ public final class CommandRunner {
      * Remove album.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode removeAlbum(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode removeAlbum(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         if (user == null) {
             objectNode.put("message", "The username " + commandInput.getUsername()
                     + " doesn't exist.");
@@ -1096,14 +1009,11 @@ public final class CommandRunner {
      * Remove event.
      *
      * @param commandInput the command input
+     * @param user the user
      * @return the object node
      */
-    public static ObjectNode removeEvent(final CommandInput commandInput) {
-        User user = Admin.getUser(commandInput.getUsername());
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("command", commandInput.getCommand());
-        objectNode.put("user", commandInput.getUsername());
-        objectNode.put("timestamp", commandInput.getTimestamp());
+    public static ObjectNode removeEvent(final CommandInput commandInput, final User user) {
+        ObjectNode objectNode = response(commandInput);
         Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
 
         if (userType == null || userType != Enums.UserType.ARTIST) {
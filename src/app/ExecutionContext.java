@@ -0,0 +1,99 @@
+package app;
+
+import app.audio.Collections.Album;
+import app.audio.Collections.Playlist;
+import app.audio.Collections.Podcast;
+import app.audio.Files.Song;
+import app.audio.Files.SongStore;
+import app.pages.Page;
+import app.searchBar.SearchIndex;
+import app.user.User;
+import app.utils.Enums;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything one replay mutates: the users, songs and podcasts behind {@link Admin}, their
+ * search indexes, the clock and the shared page registry. Each thread works on its own
+ * context, so command files replayed on different threads never see each other's state.
+ */
+public final class ExecutionContext {
+    private static final ThreadLocal<ExecutionContext> CURRENT =
+            ThreadLocal.withInitial(ExecutionContext::new);
+
+    List<User> users = new ArrayList<>();
+    Map<String, User> usersByName = new HashMap<>();
+    Map<Enums.UserType, List<User>> usersByType = new EnumMap<>(Enums.UserType.class);
+    List<Song> songs = new ArrayList<>();
+    List<Podcast> podcasts = new ArrayList<>();
+    List<Playlist> playlistsSnapshot = null;
+    List<Album> albumsSnapshot = null;
+    SearchIndex<Song> songIndex = SearchIndex.forSongs();
+    SearchIndex<Podcast> podcastIndex = SearchIndex.forPodcasts();
+    SearchIndex<Playlist> playlistIndex = SearchIndex.forPlaylists();
+    SearchIndex<Album> albumIndex = SearchIndex.forAlbums();
+    SearchIndex<User> artistIndex = SearchIndex.forUsers();
+    SearchIndex<User> hostIndex = SearchIndex.forUsers();
+    Map<User, Long> userOrder = new HashMap<>();
+    Catalog<Song> songCatalog = null;
+    SongStore songStore = new SongStore();
+    Catalog<Podcast> podcastCatalog = null;
+    Map<Song, Album> albumOfSong = new HashMap<>();
+    Chart<Song> songChart = null;
+    Chart<Playlist> playlistChart = null;
+    Chart<Album> albumChart = null;
+    Chart<User> artistChart = null;
+    ReferenceIndex references = new ReferenceIndex();
+    long nextOrder = 0;
+    int timestamp = 0;
+    private Page page;
+
+    /**
+     * Gets the context of the calling thread.
+     *
+     * @return the context
+     */
+    public static ExecutionContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs a task on the calling thread with this context as its current one, so a worker
+     * thread can execute commands of the replay this context belongs to.
+     *
+     * @param task the task
+     */
+    public void run(final Runnable task) {
+        ExecutionContext own = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(own);
+        }
+    }
+
+    /**
+     * Gets the page registry, created on first use.
+     *
+     * @return the page
+     */
+    public synchronized Page getPage() {
+        if (page == null) {
+            page = new Page();
+        }
+        return page;
+    }
+
+    /**
+     * Drops the page registry. Admin.reset leaves it alone, so a run normally sees the pages
+     * the previous run on the same thread left behind; call this to start from a fresh one.
+     */
+    public synchronized void resetPage() {
+        page = null;
+    }
+}
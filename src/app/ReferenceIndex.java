@@ -0,0 +1,312 @@
+package app;
+
+import app.audio.Collections.Playlist;
+import app.audio.Files.AudioFile;
+import app.pages.Page;
+import app.player.Player;
+import app.user.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live counts of what the users of a run are playing, which artist or host pages they are
+ * looking at and which songs the playlists of the run list, so deleting a user can tell
+ * whether anything still refers to it without walking every user or playlist. Only users and
+ * playlists that are part of the run count; players, pages and playlists report every change
+ * and the index ignores those that belong to nobody. Players of different users may report at
+ * the same time, so every access is synchronized.
+ */
+final class ReferenceIndex {
+    private static final String SONG = "song";
+    private static final String ALBUM = "album";
+    private static final String PODCAST = "podcast";
+    private static final String PLAYLIST = "playlist";
+    private static final String ARTIST_PAGE = "ArtistPage";
+    private static final String HOST_PAGE = "HostPage";
+
+    private final Set<User> users = new HashSet<>();
+    private final Map<Player, Playback> playback = new HashMap<>();
+    private final Map<String, Integer> tracks = new HashMap<>();
+    private final Map<String, Integer> episodes = new HashMap<>();
+    private final Set<Player> playlistPlayers = new HashSet<>();
+    private final Map<Page, PageView> pages = new HashMap<>();
+    private final Map<String, Integer> viewers = new HashMap<>();
+    private final Set<Playlist> playlists = new HashSet<>();
+    private final Map<AudioFile, Integer> listed = new HashMap<>();
+    private final Map<AudioFile, Integer> playlistTracks = new HashMap<>();
+    private int listedPlaying;
+
+    /**
+     * Starts counting a user that joined the run.
+     *
+     * @param user the user
+     */
+    synchronized void join(final User user) {
+        if (!users.add(user)) {
+            return;
+        }
+        Playback current = new Playback(user.getPlayer());
+        playback.put(user.getPlayer(), current);
+        count(current, 1);
+        attach(user.getPage());
+    }
+
+    /**
+     * Stops counting a user that left the run.
+     *
+     * @param user the user
+     */
+    synchronized void leave(final User user) {
+        if (!users.remove(user)) {
+            return;
+        }
+        Playback last = playback.remove(user.getPlayer());
+        if (last != null) {
+            count(last, -1);
+        }
+        detach(user.getPage());
+    }
+
+    /**
+     * Picks up whatever a player is playing now.
+     *
+     * @param player the player
+     */
+    synchronized void playerChanged(final Player player) {
+        Playback last = playback.get(player);
+        if (last == null || last.matches(player)) {
+            return;
+        }
+        Playback current = new Playback(player);
+        count(last, -1);
+        count(current, 1);
+        playback.put(player, current);
+    }
+
+    /**
+     * Moves a user from one page to another.
+     *
+     * @param user    the user
+     * @param oldPage the page the user was on, or null
+     * @param newPage the page the user is on now
+     */
+    synchronized void pageMoved(final User user, final Page oldPage, final Page newPage) {
+        if (users.contains(user) && oldPage != newPage) {
+            detach(oldPage);
+            attach(newPage);
+        }
+    }
+
+    /**
+     * Picks up whatever a page is showing now.
+     *
+     * @param page the page
+     */
+    synchronized void pageChanged(final Page page) {
+        PageView view = pages.get(page);
+        if (view == null) {
+            return;
+        }
+        view(view.names, -view.users);
+        view.names = viewedNames(page);
+        view(view.names, view.users);
+    }
+
+    /**
+     * Starts counting the songs of a playlist that joined the run.
+     *
+     * @param playlist the playlist
+     */
+    synchronized void playlistAdded(final Playlist playlist) {
+        if (playlists.add(playlist)) {
+            for (AudioFile song : playlist.getSongs()) {
+                list(song, 1);
+            }
+        }
+    }
+
+    /**
+     * Stops counting the songs of a playlist that left the run.
+     *
+     * @param playlist the playlist
+     */
+    synchronized void playlistRemoved(final Playlist playlist) {
+        if (playlists.remove(playlist)) {
+            for (AudioFile song : playlist.getSongs()) {
+                list(song, -1);
+            }
+        }
+    }
+
+    /**
+     * Picks up a song added to or removed from a playlist.
+     *
+     * @param playlist the playlist
+     * @param song     the song
+     * @param delta    1 if the song was added, -1 if it was removed
+     */
+    synchronized void playlistChanged(final Playlist playlist, final AudioFile song,
+                                      final int delta) {
+        if (playlists.contains(playlist)) {
+            list(song, delta);
+        }
+    }
+
+    /**
+     * Whether a playlist player is on a song that a playlist of the run lists.
+     *
+     * @return the boolean
+     */
+    synchronized boolean playsListedSong() {
+        return listedPlaying > 0;
+    }
+
+    /**
+     * Whether a song or album player is on a track with the given name.
+     *
+     * @param name the name
+     * @return the boolean
+     */
+    synchronized boolean playsTrack(final String name) {
+        return tracks.containsKey(name);
+    }
+
+    /**
+     * Whether a podcast player is on an episode with the given name.
+     *
+     * @param name the name
+     * @return the boolean
+     */
+    synchronized boolean playsEpisode(final String name) {
+        return episodes.containsKey(name);
+    }
+
+    /**
+     * Gets the players that are playing a playlist.
+     *
+     * @return the players
+     */
+    synchronized Set<Player> getPlaylistPlayers() {
+        return Collections.unmodifiableSet(playlistPlayers);
+    }
+
+    /**
+     * Whether a user is on the artist or host page of the given user.
+     *
+     * @param name the username
+     * @return the boolean
+     */
+    synchronized boolean isViewed(final String name) {
+        return viewers.containsKey(name);
+    }
+
+    private void count(final Playback entry, final int delta) {
+        if (entry.file == null) {
+            return;
+        }
+        if (SONG.equals(entry.type) || ALBUM.equals(entry.type)) {
+            add(tracks, entry.file.getName(), delta);
+        } else if (PODCAST.equals(entry.type)) {
+            add(episodes, entry.file.getName(), delta);
+        } else if (PLAYLIST.equals(entry.type)) {
+            if (delta > 0) {
+                playlistPlayers.add(entry.player);
+            } else {
+                playlistPlayers.remove(entry.player);
+            }
+            add(playlistTracks, entry.file, delta);
+            if (listed.containsKey(entry.file)) {
+                listedPlaying += delta;
+            }
+        }
+    }
+
+    private void list(final AudioFile song, final int delta) {
+        boolean wasListed = listed.containsKey(song);
+        add(listed, song, delta);
+        if (wasListed != listed.containsKey(song)) {
+            listedPlaying += (wasListed ? -1 : 1) * playlistTracks.getOrDefault(song, 0);
+        }
+    }
+
+    private void attach(final Page page) {
+        if (page == null) {
+            return;
+        }
+        PageView view = pages.computeIfAbsent(page, p -> new PageView(viewedNames(p)));
+        view.users++;
+        view(view.names, 1);
+    }
+
+    private void detach(final Page page) {
+        PageView view = page == null ? null : pages.get(page);
+        if (view == null) {
+            return;
+        }
+        view.users--;
+        view(view.names, -1);
+        if (view.users == 0) {
+            pages.remove(page);
+        }
+    }
+
+    private void view(final List<String> names, final int delta) {
+        for (String name : names) {
+            add(viewers, name, delta);
+        }
+    }
+
+    private static List<String> viewedNames(final Page page) {
+        List<String> names = new ArrayList<>();
+        if (page.getCurrentPage() != null
+                && (ARTIST_PAGE.equals(page.getCurrentPage().getPageType())
+                || HOST_PAGE.equals(page.getCurrentPage().getPageType()))) {
+            if (page.getArtistName() != null) {
+                names.add(page.getArtistName());
+            }
+            if (page.getHostName() != null) {
+                names.add(page.getHostName());
+            }
+        }
+        return names;
+    }
+
+    private static <K> void add(final Map<K, Integer> counts, final K name, final int delta) {
+        if (delta != 0) {
+            counts.merge(name, delta, (count, change) -> count + change == 0
+                    ? null : count + change);
+        }
+    }
+
+    private static final class Playback {
+        private final Player player;
+        private final String type;
+        private final AudioFile file;
+
+        private Playback(final Player player) {
+            this.player = player;
+            this.type = player.getType();
+            this.file = player.getCurrentAudioFile();
+        }
+
+        private boolean matches(final Player current) {
+            return file == current.getCurrentAudioFile()
+                    && (type == null ? current.getType() == null : type.equals(current.getType()));
+        }
+    }
+
+    private static final class PageView {
+        private List<String> names;
+        private int users;
+
+        private PageView(final List<String> names) {
+            this.names = names;
+        }
+    }
+}
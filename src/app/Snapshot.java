@@ -0,0 +1,735 @@
+package app;
+
+import app.audio.Collections.Album;
+import app.audio.Collections.AudioCollection;
+import app.audio.Collections.Playlist;
+import app.audio.Collections.Podcast;
+import app.audio.Files.AudioFile;
+import app.audio.Files.Episode;
+import app.audio.Files.Song;
+import app.audio.Files.SongStore;
+import app.audio.LibraryEntry;
+import app.pages.FactoryCurrentPage;
+import app.pages.Page;
+import app.pages.TypePage;
+import app.player.Player;
+import app.player.PlayerSource;
+import app.player.PodcastBookmark;
+import app.searchBar.SearchBar;
+import app.user.User;
+import app.user.userAdditions.Announcement;
+import app.user.userAdditions.Event;
+import app.user.userAdditions.Merch;
+import app.utils.Enums;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of everything a replay holds: songs with their likes, podcasts, users with
+ * their playlists, albums, likes, follows, pages, players, podcast bookmarks and search bars,
+ * and the clock. Restoring one builds the same objects directly, without the library file or
+ * the commands that led there, and a replay carried on after it gives the outputs it would
+ * have given without the break.
+ *
+ * A file is a header (magic, format version, payload length and a CRC32 of the payload)
+ * followed by the payload. Entries are written once, in tables, and referred to by their
+ * position; strings are written once too, on first use, and by number afterwards. Entries
+ * that left the library but are still held somewhere, such as search results naming a deleted
+ * user, are written with the rest and only left out of the library lists and indexes.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x534e4150;
+    private static final int VERSION = 1;
+    private static final int HEADER = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int BUFFER = 1 << 20;
+    private static final int NONE = -1;
+
+    private static final byte NO_ENTRY = 0;
+    private static final byte SONG = 1;
+    private static final byte PLAYLIST = 2;
+    private static final byte PODCAST = 3;
+    private static final byte ALBUM = 4;
+    private static final byte USER = 5;
+    private static final byte EPISODE = 6;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the execution context of the calling thread.
+     *
+     * @param path the path
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void write(final Path path) throws IOException {
+        ByteBuffer payload = new Writer(ExecutionContext.current()).write();
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(payload.remaining())
+                .putInt((int) checksum.getValue())
+                .flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, payload};
+            while (payload.hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Drops whatever the calling thread held and restores a snapshot into it.
+     *
+     * @param path the path
+     * @throws IOException in case of exceptions to reading, or if the file is not a whole
+     * snapshot of this version
+     */
+    public static void restore(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header);
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has snapshot version " + version
+                        + ", expected " + VERSION);
+            }
+            long length = header.getLong();
+            int expected = header.getInt();
+            if (length != channel.size() - HEADER || length > Integer.MAX_VALUE) {
+                throw new IOException(path + " is truncated");
+            }
+            ByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, length);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expected) {
+                throw new IOException(path + " fails its checksum");
+            }
+            new Reader(payload, ExecutionContext.current()).read();
+        }
+    }
+
+    /**
+     * Numbers the entries reachable from a context and writes them out.
+     */
+    private static final class Writer {
+        private final ExecutionContext context;
+        private final Table<Song> songs = new Table<>();
+        private final Table<Podcast> podcasts = new Table<>();
+        private final Table<Playlist> playlists = new Table<>();
+        private final Table<Album> albums = new Table<>();
+        private final Table<User> users = new Table<>();
+        private final Table<Page> pages = new Table<>();
+        private final Map<String, Integer> strings = new HashMap<>();
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER);
+
+        private Writer(final ExecutionContext context) {
+            this.context = context;
+        }
+
+        private ByteBuffer write() {
+            collect();
+            putInt(context.timestamp);
+
+            putInt(songs.list.size());
+            for (Song song : songs.list) {
+                putString(song.getName());
+                putInteger(song.hasDuration() ? song.getDuration() : null);
+                putString(song.getAlbum());
+                putStrings(song.getTags());
+                putString(song.getLyrics());
+                putString(song.getGenre());
+                putInteger(song.getReleaseYear());
+                putString(song.getArtist());
+                putInt(song.getLikes());
+            }
+
+            putInt(podcasts.list.size());
+            for (Podcast podcast : podcasts.list) {
+                putString(podcast.getName());
+                putString(podcast.getOwner());
+                putInt(podcast.getEpisodes().size());
+                for (Episode episode : podcast.getEpisodes()) {
+                    putString(episode.getName());
+                    putInteger(episode.getDuration());
+                    putString(episode.getDescription());
+                }
+            }
+
+            putInt(users.list.size());
+            for (User user : users.list) {
+                putString(user.getUsername());
+                putInt(user.getAge());
+                putString(user.getCity());
+            }
+
+            putInt(playlists.list.size());
+            for (Playlist playlist : playlists.list) {
+                putString(playlist.getName());
+                putString(playlist.getOwner());
+                putInt(playlist.getTimestamp());
+                putInt(playlist.getVisibility().ordinal());
+                putInt(playlist.getFollowers());
+                putBoolean(playlist.isPlay());
+                putIds(songs, playlist.getSongs());
+            }
+
+            putInt(albums.list.size());
+            for (Album album : albums.list) {
+                putString(album.getName());
+                putString(album.getOwner());
+                putString(album.getDescription());
+                putIds(songs, album.getSongs());
+            }
+
+            putInt(pages.list.size());
+            for (Page page : pages.list) {
+                putString(page.getCurrentUser());
+                putString(page.getArtistName());
+                putString(page.getHostName());
+                TypePage current = page.getCurrentPage();
+                if (current == null) {
+                    putInt(NONE);
+                } else {
+                    putInt(FactoryCurrentPage.PageType
+                            .valueOf(current.getClass().getSimpleName()).ordinal());
+                    putString(current.getPageType());
+                }
+            }
+
+            for (User user : users.list) {
+                putUser(user);
+            }
+
+            putIds(songs, context.songs);
+            putIds(podcasts, context.podcasts);
+            putIds(users, context.users);
+            return out.flip();
+        }
+
+        /**
+         * Numbers the library, the users and the shared page first, then whatever they hold
+         * that is no longer part of the library.
+         */
+        private void collect() {
+            pages.id(context.getPage());
+            for (Song song : context.songs) {
+                songs.id(song);
+            }
+            for (Podcast podcast : context.podcasts) {
+                podcasts.id(podcast);
+            }
+            for (User user : context.users) {
+                users.id(user);
+            }
+            for (int i = 0; i < users.list.size(); i++) {
+                User user = users.list.get(i);
+                user.getPlaylists().forEach(this::collect);
+                user.getAlbums().forEach(this::collect);
+                user.getPodcasts().forEach(this::collect);
+                user.getLikedSongs().forEach(this::collect);
+                user.getFollowedPlaylists().forEach(this::collect);
+                if (user.getPage() != null) {
+                    pages.id(user.getPage());
+                }
+                PlayerSource source = user.getPlayer().getSource();
+                if (source != null) {
+                    collect(source.getAudioCollection());
+                    collect(source.getAudioFile());
+                }
+                SearchBar searchBar = user.getSearchBar();
+                searchBar.getResults().forEach(this::collect);
+                collect(searchBar.getLastSelected());
+            }
+        }
+
+        private void collect(final LibraryEntry entry) {
+            if (entry instanceof Song song) {
+                songs.id(song);
+            } else if (entry instanceof Playlist playlist) {
+                if (playlists.id(playlist) == playlists.list.size() - 1) {
+                    playlist.getSongs().forEach(songs::id);
+                }
+            } else if (entry instanceof Album album) {
+                if (albums.id(album) == albums.list.size() - 1) {
+                    album.getSongs().forEach(songs::id);
+                }
+            } else if (entry instanceof Podcast podcast) {
+                podcasts.id(podcast);
+            } else if (entry instanceof User user) {
+                users.id(user);
+            }
+        }
+
+        private void putUser(final User user) {
+            putString(user.getUserType());
+            putBoolean(user.isOnline());
+            putInt(user.getSyncedTimestamp());
+            putBoolean(user.isLastSearched());
+            putIds(playlists, user.getPlaylists());
+            putIds(albums, user.getAlbums());
+            putIds(podcasts, user.getPodcasts());
+            putIds(songs, user.getLikedSongs());
+            putIds(playlists, user.getFollowedPlaylists());
+
+            putInt(user.getEvents().size());
+            for (Event event : user.getEvents()) {
+                putString(event.getName());
+                putString(event.getDate());
+                putString(event.getDescription());
+            }
+            putInt(user.getMerches().size());
+            for (Merch merch : user.getMerches()) {
+                putString(merch.getName());
+                putInt(merch.getPrice());
+                putString(merch.getDescription());
+            }
+            putInt(user.getAnnouncements().size());
+            for (Announcement announcement : user.getAnnouncements()) {
+                putString(announcement.getName());
+                putString(announcement.getDescription());
+            }
+            putInt(user.getPage() == null ? NONE : pages.id(user.getPage()));
+
+            Player player = user.getPlayer();
+            putString(player.getType());
+            putInt(player.getRepeatMode().ordinal());
+            putBoolean(player.getShuffle());
+            putBoolean(player.getPaused());
+            PlayerSource source = player.getSource();
+            putBoolean(source != null);
+            if (source != null) {
+                putInt(source.getType().ordinal());
+                putEntry(source.getAudioCollection());
+                putAudioFile(source.getAudioFile(), source.getAudioCollection());
+                putInt(source.getIndex());
+                putInt(source.getIndexShuffled());
+                putInt(source.getDuration());
+                putInt(source.getIndices().size());
+                for (int index : source.getIndices()) {
+                    putInt(index);
+                }
+            }
+            putInt(player.getBookmarks().size());
+            for (PodcastBookmark bookmark : player.getBookmarks()) {
+                putString(bookmark.getName());
+                putInt(bookmark.getId());
+                putInt(bookmark.getTimestamp());
+            }
+
+            SearchBar searchBar = user.getSearchBar();
+            putInt(searchBar.getResults().size());
+            for (LibraryEntry result : searchBar.getResults()) {
+                putEntry(result);
+            }
+            putString(searchBar.getLastSearchType());
+            putEntry(searchBar.getLastSelected());
+        }
+
+        private void putEntry(final LibraryEntry entry) {
+            if (entry instanceof Song song) {
+                putByte(SONG);
+                putInt(songs.id(song));
+            } else if (entry instanceof Playlist playlist) {
+                putByte(PLAYLIST);
+                putInt(playlists.id(playlist));
+            } else if (entry instanceof Podcast podcast) {
+                putByte(PODCAST);
+                putInt(podcasts.id(podcast));
+            } else if (entry instanceof Album album) {
+                putByte(ALBUM);
+                putInt(albums.id(album));
+            } else if (entry instanceof User user) {
+                putByte(USER);
+                putInt(users.id(user));
+            } else if (entry == null) {
+                putByte(NO_ENTRY);
+            } else {
+                throw new IllegalStateException("Cannot snapshot " + entry.getClass());
+            }
+        }
+
+        /**
+         * Writes the file a player is on. An episode is written as its position in the
+         * podcast being played.
+         */
+        private void putAudioFile(final AudioFile file, final AudioCollection collection) {
+            if (file instanceof Episode episode && collection instanceof Podcast podcast) {
+                int position = 0;
+                while (podcast.getEpisodes().get(position) != episode) {
+                    position++;
+                }
+                putByte(EPISODE);
+                putInt(podcasts.id(podcast));
+                putInt(position);
+            } else {
+                putEntry(file);
+            }
+        }
+
+        private <T> void putIds(final Table<T> table, final Collection<? extends T> entries) {
+            putInt(entries.size());
+            for (T entry : entries) {
+                putInt(table.id(entry));
+            }
+        }
+
+        private void putStrings(final List<String> values) {
+            if (values == null) {
+                putInt(NONE);
+                return;
+            }
+            putInt(values.size());
+            for (String value : values) {
+                putString(value);
+            }
+        }
+
+        /**
+         * Writes a string as its number, followed by its bytes the first time it is written.
+         */
+        private void putString(final String value) {
+            if (value == null) {
+                putInt(NONE);
+                return;
+            }
+            Integer id = strings.get(value);
+            if (id != null) {
+                putInt(id);
+                return;
+            }
+            putInt(strings.size());
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            room(bytes.length).put(bytes);
+        }
+
+        private void putInteger(final Integer value) {
+            putBoolean(value != null);
+            if (value != null) {
+                putInt(value);
+            }
+        }
+
+        private void putInt(final int value) {
+            room(Integer.BYTES).putInt(value);
+        }
+
+        private void putByte(final byte value) {
+            room(1).put(value);
+        }
+
+        private void putBoolean(final boolean value) {
+            putByte(value ? (byte) 1 : (byte) 0);
+        }
+
+        private ByteBuffer room(final int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2,
+                        out.position() + bytes));
+                out.flip();
+                out = larger.put(out);
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Builds the entries of a snapshot and installs them into a context.
+     */
+    private static final class Reader {
+        private final ByteBuffer in;
+        private final ExecutionContext context;
+        private final List<String> strings = new ArrayList<>();
+        private byte[] bytes = new byte[BUFFER];
+        private Song[] songs;
+        private Podcast[] podcasts;
+        private User[] users;
+        private Playlist[] playlists;
+        private Album[] albums;
+        private Page[] pages;
+
+        private Reader(final ByteBuffer in, final ExecutionContext context) {
+            this.in = in;
+            this.context = context;
+        }
+
+        private void read() {
+            Admin.reset();
+            context.resetPage();
+            context.songCatalog = null;
+            context.songStore = new SongStore();
+            context.podcastCatalog = null;
+            int timestamp = in.getInt();
+
+            songs = new Song[in.getInt()];
+            for (int i = 0; i < songs.length; i++) {
+                songs[i] = new Song(getString(), getInteger(), getString(), getStrings(),
+                        getString(), getString(), getInteger(), getString());
+                songs[i].restoreLikes(in.getInt());
+            }
+
+            podcasts = new Podcast[in.getInt()];
+            for (int i = 0; i < podcasts.length; i++) {
+                String name = getString();
+                String owner = getString();
+                List<Episode> episodes = new ArrayList<>();
+                for (int e = in.getInt(); e > 0; e--) {
+                    episodes.add(new Episode(getString(), getInteger(), getString()));
+                }
+                podcasts[i] = new Podcast(name, owner, episodes);
+            }
+
+            users = new User[in.getInt()];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = new User(getString(), in.getInt(), getString());
+            }
+
+            playlists = new Playlist[in.getInt()];
+            for (int i = 0; i < playlists.length; i++) {
+                Playlist playlist = new Playlist(getString(), getString(), in.getInt());
+                playlist.setVisibility(Enums.Visibility.values()[in.getInt()]);
+                playlist.restoreFollowers(in.getInt());
+                playlist.setPlay(getBoolean());
+                for (int s = in.getInt(); s > 0; s--) {
+                    playlist.addSong(songs[in.getInt()]);
+                }
+                playlists[i] = playlist;
+            }
+
+            albums = new Album[in.getInt()];
+            for (int i = 0; i < albums.length; i++) {
+                String name = getString();
+                String owner = getString();
+                String description = getString();
+                albums[i] = new Album(name, owner, getIds(songs), description);
+            }
+
+            pages = new Page[in.getInt()];
+            for (int i = 0; i < pages.length; i++) {
+                Page page = i == 0 ? context.getPage() : new Page();
+                page.setCurrentUser(getString());
+                page.setArtistName(getString());
+                page.setHostName(getString());
+                int kind = in.getInt();
+                if (kind != NONE) {
+                    TypePage current = FactoryCurrentPage.createPage(
+                            FactoryCurrentPage.PageType.values()[kind]);
+                    current.setPageType(getString());
+                    page.setCurrentPage(current);
+                }
+                pages[i] = page;
+            }
+
+            for (User user : users) {
+                getUser(user);
+            }
+
+            context.songs = getIds(songs);
+            context.songIndex.addAll(context.songs, context.nextOrder);
+            context.nextOrder += context.songs.size();
+            context.podcasts = getIds(podcasts);
+            context.podcastIndex.addAll(context.podcasts, context.nextOrder);
+            context.nextOrder += context.podcasts.size();
+            List<User> live = getIds(users);
+            for (User user : live) {
+                index(user);
+            }
+            for (User user : live) {
+                for (Playlist playlist : user.getPlaylists()) {
+                    Admin.addPlaylist(user, playlist);
+                }
+                for (Album album : user.getAlbums()) {
+                    Admin.addAlbum(user, album);
+                }
+            }
+            context.timestamp = timestamp;
+        }
+
+        private void getUser(final User user) {
+            user.setUserType(getString());
+            user.setOnline(getBoolean());
+            int syncedTimestamp = in.getInt();
+            boolean lastSearched = getBoolean();
+            user.getPlaylists().addAll(getIds(playlists));
+            user.getAlbums().addAll(getIds(albums));
+            user.getPodcasts().addAll(getIds(podcasts));
+            user.getLikedSongs().addAll(getIds(songs));
+            user.getFollowedPlaylists().addAll(getIds(playlists));
+
+            for (int e = in.getInt(); e > 0; e--) {
+                user.addEv(new Event(getString(), getString(), getString()));
+            }
+            for (int m = in.getInt(); m > 0; m--) {
+                String name = getString();
+                int price = in.getInt();
+                user.addMer(new Merch(name, price, getString()));
+            }
+            for (int a = in.getInt(); a > 0; a--) {
+                user.addAn(new Announcement(getString(), getString()));
+            }
+            int page = in.getInt();
+            if (page != NONE) {
+                user.setPage(pages[page]);
+            }
+
+            String type = getString();
+            Enums.RepeatMode repeatMode = Enums.RepeatMode.values()[in.getInt()];
+            boolean shuffle = getBoolean();
+            boolean paused = getBoolean();
+            PlayerSource source = null;
+            if (getBoolean()) {
+                Enums.PlayerSourceType sourceType = Enums.PlayerSourceType.values()[in.getInt()];
+                AudioCollection collection = (AudioCollection) getEntry();
+                AudioFile file = (AudioFile) getEntry();
+                int index = in.getInt();
+                int indexShuffled = in.getInt();
+                int duration = in.getInt();
+                List<Integer> indices = new ArrayList<>();
+                for (int i = in.getInt(); i > 0; i--) {
+                    indices.add(in.getInt());
+                }
+                source = new PlayerSource(sourceType, collection, file, index, indexShuffled,
+                        duration, indices);
+            }
+            List<PodcastBookmark> bookmarks = new ArrayList<>();
+            for (int b = in.getInt(); b > 0; b--) {
+                bookmarks.add(new PodcastBookmark(getString(), in.getInt(), in.getInt()));
+            }
+            user.getPlayer().restore(type, source, repeatMode, shuffle, paused, bookmarks);
+
+            List<LibraryEntry> results = new ArrayList<>();
+            for (int r = in.getInt(); r > 0; r--) {
+                results.add(getEntry());
+            }
+            String lastSearchType = getString();
+            user.getSearchBar().restore(results, lastSearchType, getEntry());
+            user.restoreSession(lastSearched, syncedTimestamp);
+        }
+
+        /**
+         * Adds a user of the library to the lookup indexes, as setting or adding it did.
+         */
+        private void index(final User user) {
+            context.users.add(user);
+            context.usersByName.putIfAbsent(user.getUsername(), user);
+            long order = context.nextOrder++;
+            context.userOrder.put(user, order);
+            if (user.getUserType() != null) {
+                Enums.UserType userType = Enums.UserType.valueOf(user.getUserType());
+                context.usersByType.computeIfAbsent(userType, type -> new ArrayList<>())
+                        .add(user);
+                if (userType == Enums.UserType.ARTIST) {
+                    context.artistIndex.add(user, order);
+                } else if (userType == Enums.UserType.HOST) {
+                    context.hostIndex.add(user, order);
+                }
+            }
+            context.references.join(user);
+        }
+
+        private LibraryEntry getEntry() {
+            byte kind = in.get();
+            return switch (kind) {
+                case NO_ENTRY -> null;
+                case SONG -> songs[in.getInt()];
+                case PLAYLIST -> playlists[in.getInt()];
+                case PODCAST -> podcasts[in.getInt()];
+                case ALBUM -> albums[in.getInt()];
+                case USER -> users[in.getInt()];
+                case EPISODE -> podcasts[in.getInt()].getEpisodes().get(in.getInt());
+                default -> throw new IllegalStateException("Unknown entry kind " + kind);
+            };
+        }
+
+        private <T> ArrayList<T> getIds(final T[] table) {
+            int count = in.getInt();
+            ArrayList<T> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(table[in.getInt()]);
+            }
+            return entries;
+        }
+
+        private ArrayList<String> getStrings() {
+            int count = in.getInt();
+            if (count == NONE) {
+                return null;
+            }
+            ArrayList<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(getString());
+            }
+            return values;
+        }
+
+        private String getString() {
+            int id = in.getInt();
+            if (id == NONE) {
+                return null;
+            }
+            if (id < strings.size()) {
+                return strings.get(id);
+            }
+            int length = in.getInt();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            in.get(bytes, 0, length);
+            String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private Integer getInteger() {
+            return getBoolean() ? in.getInt() : null;
+        }
+
+        private boolean getBoolean() {
+            return in.get() != 0;
+        }
+    }
+
+    /**
+     * Numbers entries by identity, in the order they are first met.
+     *
+     * @param <T> the entry type
+     */
+    private static final class Table<T> {
+        private final Map<T, Integer> ids = new IdentityHashMap<>();
+        private final List<T> list = new ArrayList<>();
+
+        private int id(final T entry) {
+            Integer id = ids.get(entry);
+            if (id == null) {
+                id = list.size();
+                ids.put(entry, id);
+                list.add(entry);
+            }
+            return id;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package app.audio.Collections;
 import app.audio.Files.AudioFile;
 import app.audio.Files.Song;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.ArrayList;
 @Getter
@@ -12,7 +11,6 @@ public final class Album extends AudioCollection {
     @Getter
     private final ArrayList<Song> songs;
     private final String description;
-    @Setter
     private int totalLikes;
 
     public Album(final String name, final String owner, final ArrayList<Song> songs,
@@ -20,6 +18,9 @@ public final class Album extends AudioCollection {
         super(name, owner);
         this.songs = songs;
         this.description = description;
+        for (Song song : songs) {
+            this.totalLikes += song.getLikes();
+        }
     }
 
     @Override
@@ -33,16 +34,21 @@ public final class Album extends AudioCollection {
     }
 
     /**
-     * Get total likes
+     * Get total likes, kept up to date as the songs are liked and disliked.
      *
      * @return total likes
      */
     public int getTotalLikes() {
-        int total = 0;
-        for (Song song : songs) {
-            total += song.getLikes();
-        }
-        return total;
+        return totalLikes;
+    }
+
+    /**
+     * Add likes.
+     *
+     * @param delta the change in likes
+     */
+    public void addLikes(final int delta) {
+        totalLikes += delta;
     }
 
 
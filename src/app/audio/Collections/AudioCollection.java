@@ -38,6 +38,15 @@ public abstract class AudioCollection extends LibraryEntry {
      */
     public abstract AudioFile getTrackByIndex(int index);
 
+    /**
+     * Gets a counter that changes whenever the tracks change.
+     *
+     * @return the tracks version
+     */
+    public int getTracksVersion() {
+        return 0;
+    }
+
     /**
      *
      * @param user the user
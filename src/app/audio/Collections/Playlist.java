@@ -1,12 +1,17 @@
 package app.audio.Collections;
 
+import app.Admin;
 import app.audio.Files.AudioFile;
 import app.audio.Files.Song;
+import app.searchBar.NumericRange;
 import app.utils.Enums;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * The type Playlist.
@@ -14,10 +19,14 @@ import java.util.ArrayList;
 @Getter @Setter
 public final class Playlist extends AudioCollection {
     private final ArrayList<Song> songs;
+    @Getter(AccessLevel.NONE)
+    private final Set<Song> members;
     private Enums.Visibility visibility;
+    @Setter(AccessLevel.NONE)
     private Integer followers;
     private int timestamp;
     private boolean isPlay;
+    private int tracksVersion;
 
     /**
      * Instantiates a new Playlist.
@@ -39,6 +48,7 @@ public final class Playlist extends AudioCollection {
     public Playlist(final String name, final String owner, final int timestamp) {
         super(name, owner);
         this.songs = new ArrayList<>();
+        this.members = new HashSet<>();
         this.visibility = Enums.Visibility.PUBLIC;
         this.followers = 0;
         this.timestamp = timestamp;
@@ -52,7 +62,7 @@ public final class Playlist extends AudioCollection {
      * @return the boolean
      */
     public boolean containsSong(final Song song) {
-        return songs.contains(song);
+        return members.contains(song);
     }
 
     /**
@@ -62,6 +72,9 @@ public final class Playlist extends AudioCollection {
      */
     public void addSong(final Song song) {
         songs.add(song);
+        members.add(song);
+        tracksVersion++;
+        Admin.playlistChanged(this, song, 1);
     }
 
     /**
@@ -71,6 +84,9 @@ public final class Playlist extends AudioCollection {
      */
     public void removeSong(final Song song) {
         songs.remove(song);
+        members.remove(song);
+        tracksVersion++;
+        Admin.playlistChanged(this, song, -1);
     }
 
     /**
@@ -79,7 +95,10 @@ public final class Playlist extends AudioCollection {
      * @param index the index
      */
     public void removeSong(final int index) {
-        songs.remove(index);
+        Song song = songs.remove(index);
+        members.remove(song);
+        tracksVersion++;
+        Admin.playlistChanged(this, song, -1);
     }
 
     /**
@@ -94,7 +113,8 @@ public final class Playlist extends AudioCollection {
     }
 
     /**
-     * Increase followers.
+     * Increase followers. Called through {@link app.Admin#changeFollowers}, which keeps the
+     * playlist chart in order.
      */
     public void increaseFollowers() {
         followers++;
@@ -107,6 +127,15 @@ public final class Playlist extends AudioCollection {
         followers--;
     }
 
+    /**
+     * Sets the followers of a playlist restored from a snapshot.
+     *
+     * @param count the followers
+     */
+    public void restoreFollowers(final int count) {
+        followers = count;
+    }
+
     @Override
     public int getNumberOfTracks() {
         return songs.size();
@@ -125,18 +154,8 @@ public final class Playlist extends AudioCollection {
     }
 
     @Override
-    public boolean matchesFollowers(final String followerNum) {
-        return filterByFollowersCount(this.getFollowers(), followerNum);
-    }
-
-    private static boolean filterByFollowersCount(final int count, final String query) {
-        if (query.startsWith("<")) {
-            return count < Integer.parseInt(query.substring(1));
-        } else if (query.startsWith(">")) {
-            return count > Integer.parseInt(query.substring(1));
-        } else {
-            return count == Integer.parseInt(query);
-        }
+    public boolean matchesFollowers(final NumericRange followerNum) {
+        return followerNum.contains(this.getFollowers());
     }
 
     public int getTotalLikes() {
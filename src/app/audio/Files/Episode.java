@@ -4,10 +4,12 @@ import lombok.Getter;
 
 @Getter
 public final class Episode extends AudioFile {
+    private final int duration;
     private final String description;
 
     public Episode(final String name, final Integer duration, final String description) {
-        super(name, duration);
+        super(name);
+        this.duration = duration;
         this.description = description;
     }
 }
@@ -1,22 +1,18 @@
 package app.audio.Files;
 
-import lombok.Getter;
+import app.Admin;
+import app.searchBar.NumericRange;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
- * The type Song.
+ * The type Song. Apart from its name a song is a row of {@link SongColumns}.
  */
-@Getter
 public final class Song extends AudioFile {
-    private final String album;
-    private final ArrayList<String> tags;
-    private final String lyrics;
-    private final String genre;
-    private final Integer releaseYear;
-    private final String artist;
-    private Integer likes;
+    private final SongColumns columns;
+    private final int row;
 
     /**
      * Instantiates a new Song.
@@ -33,77 +29,282 @@ public final class Song extends AudioFile {
     public Song(final String name, final Integer duration, final String album,
                 final ArrayList<String> tags, final String lyrics, final String genre,
                 final Integer releaseYear, final String artist) {
-        super(name, duration);
-        this.album = album;
-        this.tags = tags;
-        this.lyrics = lyrics;
-        this.genre = genre;
-        this.releaseYear = releaseYear;
-        this.artist = artist;
-        this.likes = 0;
+        super(name);
+        SongStore store = Admin.getSongStore();
+        synchronized (store) {
+            this.columns = store.withRoom();
+            this.row = columns.append(duration, album, tags, lyrics, genre, releaseYear,
+                    artist);
+        }
     }
 
-    @Override
-    public boolean matchesAlbum(final String albumName) {
-        return this.getAlbum().equalsIgnoreCase(albumName);
+    /**
+     * Code a genre, album, artist or tag filter matches, compared case-insensitively, among
+     * the songs of the current store.
+     *
+     * @param value the value
+     * @return the code, or -1 for a value no song has
+     */
+    public static int codeOf(final String value) {
+        return Admin.getSongStore().codeOf(value);
+    }
+
+    /**
+     * Numeric id of a genre, compared case-insensitively.
+     *
+     * @param genre the genre
+     * @return the id, or -1 for a genre no song has
+     */
+    public static int genreIdOf(final String genre) {
+        return codeOf(genre);
     }
 
     @Override
-    public boolean matchesTags(final ArrayList<String> tagsList) {
-        List<String> songTags = new ArrayList<>();
-        for (String tag : this.getTags()) {
-            songTags.add(tag.toLowerCase());
+    public int getDuration() {
+        int duration = columns.durations[row];
+        if (duration == SongColumns.NO_DURATION) {
+            throw new IllegalStateException("Song " + getName() + " has no duration");
+        }
+        return duration;
+    }
+
+    /**
+     * Whether the song was given a duration; a song without one loads, but asking for its
+     * duration throws.
+     *
+     * @return the boolean
+     */
+    public boolean hasDuration() {
+        return columns.durations[row] != SongColumns.NO_DURATION;
+    }
+
+    /**
+     * Gets album.
+     *
+     * @return the album
+     */
+    public String getAlbum() {
+        return columns.store.value(columns.albums[row]);
+    }
+
+    /**
+     * Gets tags.
+     *
+     * @return a copy of the tags
+     */
+    public ArrayList<String> getTags() {
+        int[] codes = columns.tags;
+        ArrayList<String> tags = new ArrayList<>();
+        for (int i = columns.tagStart(row); i < columns.tagEnds[row]; i++) {
+            tags.add(columns.store.value(codes[i]));
+        }
+        return tags;
+    }
+
+    /**
+     * Gets the lower-cased tags.
+     *
+     * @return the tags
+     */
+    public Set<String> getFoldedTags() {
+        int[] codes = columns.tags;
+        Set<String> tags = new HashSet<>();
+        for (int i = columns.tagStart(row); i < columns.tagEnds[row]; i++) {
+            tags.add(columns.store.value(columns.store.folded(codes[i])));
         }
+        return tags;
+    }
 
-        for (String tag : tagsList) {
-            if (!songTags.contains(tag.toLowerCase())) {
+    /**
+     * Gets lyrics.
+     *
+     * @return the lyrics
+     */
+    public String getLyrics() {
+        return columns.lyrics[row];
+    }
+
+    /**
+     * Gets genre.
+     *
+     * @return the genre
+     */
+    public String getGenre() {
+        return columns.store.value(columns.genres[row]);
+    }
+
+    /**
+     * Gets the genre id, see {@link #genreIdOf(String)}.
+     *
+     * @return the genre id, or -1 for a song without a genre
+     */
+    public int getGenreId() {
+        return columns.store.folded(columns.genres[row]);
+    }
+
+    /**
+     * Gets release year.
+     *
+     * @return the release year, or null
+     */
+    public Integer getReleaseYear() {
+        return columns.years[row] == SongColumns.NO_YEAR ? null
+                : Integer.valueOf(columns.year(row));
+    }
+
+    /**
+     * Gets artist.
+     *
+     * @return the artist
+     */
+    public String getArtist() {
+        return columns.store.value(columns.artists[row]);
+    }
+
+    /**
+     * Gets likes.
+     *
+     * @return the likes
+     */
+    public int getLikes() {
+        return columns.likes[row];
+    }
+
+    /**
+     * Whether the album matches a code from {@link #codeOf(String)}.
+     *
+     * @param code the code
+     * @return the boolean
+     */
+    public boolean hasAlbum(final int code) {
+        return code != SongColumns.NONE && columns.store.folded(columns.albums[row]) == code;
+    }
+
+    /**
+     * Whether the artist matches a code from {@link #codeOf(String)}.
+     *
+     * @param code the code
+     * @return the boolean
+     */
+    public boolean hasArtist(final int code) {
+        return code != SongColumns.NONE && columns.store.folded(columns.artists[row]) == code;
+    }
+
+    /**
+     * Whether the genre matches a code from {@link #codeOf(String)}.
+     *
+     * @param code the code
+     * @return the boolean
+     */
+    public boolean hasGenre(final int code) {
+        return code != SongColumns.NONE && columns.store.folded(columns.genres[row]) == code;
+    }
+
+    /**
+     * Whether the song has every tag of a list of codes from {@link #codeOf(String)}.
+     *
+     * @param codes the codes
+     * @return the boolean
+     */
+    public boolean hasTags(final int[] codes) {
+        int[] tags = columns.tags;
+        int start = columns.tagStart(row);
+        int end = columns.tagEnds[row];
+        for (int code : codes) {
+            int i = start;
+            while (i < end && columns.store.folded(tags[i]) != code) {
+                i++;
+            }
+            if (code == SongColumns.NONE || i == end) {
                 return false;
             }
         }
         return true;
     }
+
+    /**
+     * Whether the release year falls in a range.
+     *
+     * @param releaseYearFilter the range
+     * @return the boolean
+     */
+    public boolean hasReleaseYear(final NumericRange releaseYearFilter) {
+        return columns.years[row] != SongColumns.NO_YEAR
+                && releaseYearFilter.contains(columns.year(row));
+    }
+
+    /**
+     * Whether the lower-cased lyrics contain an already lower-cased value.
+     *
+     * @param foldedLyric the value
+     * @return the boolean
+     */
+    public boolean hasLyrics(final String foldedLyric) {
+        String lyrics = columns.foldedLyrics[row];
+        return lyrics != null && lyrics.contains(foldedLyric);
+    }
+
+    @Override
+    public boolean matchesAlbum(final String albumName) {
+        return hasAlbum(codeOf(albumName));
+    }
+
+    @Override
+    public boolean matchesTags(final ArrayList<String> tagsList) {
+        int[] codes = new int[tagsList.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = codeOf(tagsList.get(i));
+        }
+        return hasTags(codes);
+    }
     @Override
     public boolean matchesLyrics(final String lyricFilter) {
-        return this.getLyrics().toLowerCase().contains(lyricFilter.toLowerCase());
+        return hasLyrics(lyricFilter.toLowerCase());
     }
 
     @Override
     public boolean matchesGenre(final String genreFilter) {
-        return this.getGenre().equalsIgnoreCase(genreFilter);
+        return hasGenre(codeOf(genreFilter));
     }
 
     @Override
     public boolean matchesArtist(final String artistFilter) {
-        return this.getArtist().equalsIgnoreCase(artistFilter);
+        return hasArtist(codeOf(artistFilter));
     }
 
     @Override
-    public boolean matchesReleaseYear(final String releaseYearFilter) {
-        return filterByYear(this.getReleaseYear(), releaseYearFilter);
-    }
-
-    private static boolean filterByYear(final int year, final String query) {
-        if (query.startsWith("<")) {
-            return year < Integer.parseInt(query.substring(1));
-        } else if (query.startsWith(">")) {
-            return year > Integer.parseInt(query.substring(1));
-        } else {
-            return year == Integer.parseInt(query);
-        }
+    public boolean matchesReleaseYear(final NumericRange releaseYearFilter) {
+        return hasReleaseYear(releaseYearFilter);
     }
 
     /**
      * Like.
      */
     public void like() {
-        likes++;
+        Admin.changeLikes(this, () -> columns.likes[row]++);
     }
 
     /**
      * Dislike.
      */
     public void dislike() {
-        likes--;
+        Admin.changeLikes(this, () -> columns.likes[row]--);
+    }
+
+    /**
+     * Clears the likes, when the song is reused by a new run.
+     */
+    public void resetLikes() {
+        columns.likes[row] = 0;
+    }
+
+    /**
+     * Sets the likes of a song restored from a snapshot.
+     *
+     * @param count the likes
+     */
+    public void restoreLikes(final int count) {
+        columns.likes[row] = count;
     }
     // Implementarea metodei abstracte pentru a obține albumul
 }
@@ -0,0 +1,131 @@
+package app.audio.Files;
+
+import java.util.Arrays;
+
+/**
+ * Column store behind {@link Song}. Songs are kept in chunks of rows, one primitive array per
+ * field, and a song is only its chunk and row. Album, artist, genre and tags are codes into the
+ * dictionary of the {@link SongStore} the chunk belongs to, in which each distinct value is
+ * stored once together with the code of its lower-cased form, so matching a field is comparing
+ * two ints.
+ *
+ * Release years are shorts; the few outside their range are kept in an int column a chunk only
+ * allocates for its first such year.
+ *
+ * Rows are handed out in order from the chunk being filled and are never reused; a chunk goes
+ * away with the last song pointing into it. Values are written before the song is built, so
+ * whatever publishes the song publishes its row; only likes change afterwards.
+ */
+final class SongColumns {
+    static final int NONE = -1;
+    static final int NO_DURATION = Integer.MIN_VALUE;
+    static final short NO_YEAR = Short.MIN_VALUE;
+    static final short WIDE_YEAR = Short.MIN_VALUE + 1;
+    static final int ROWS = 1 << 10;
+    private static final int TAGS_PER_ROW = 4;
+
+    final SongStore store;
+    final int[] durations = new int[ROWS];
+    final short[] years = new short[ROWS];
+    final int[] likes = new int[ROWS];
+    final int[] albums = new int[ROWS];
+    final int[] artists = new int[ROWS];
+    final int[] genres = new int[ROWS];
+    final int[] tagEnds = new int[ROWS];
+    final String[] lyrics = new String[ROWS];
+    final String[] foldedLyrics = new String[ROWS];
+    volatile int[] tags = new int[ROWS * TAGS_PER_ROW];
+    private volatile int[] wideYears;
+    private int rows;
+
+    SongColumns(final SongStore store) {
+        this.store = store;
+    }
+
+    boolean isFull() {
+        return rows == ROWS;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Drops the rows from the given one on, so they are handed out again.
+     *
+     * @param kept how many rows to keep
+     */
+    void truncate(final int kept) {
+        Arrays.fill(likes, kept, rows, 0);
+        Arrays.fill(lyrics, kept, rows, null);
+        Arrays.fill(foldedLyrics, kept, rows, null);
+        rows = kept;
+    }
+
+    /**
+     * Fills the next row of this chunk.
+     *
+     * @param duration    the duration, or null
+     * @param album       the album
+     * @param tagValues   the tags, or null
+     * @param lyric       the lyrics
+     * @param genre       the genre
+     * @param releaseYear the release year, or null
+     * @param artist      the artist
+     * @return the row
+     */
+    int append(final Integer duration, final String album, final Iterable<String> tagValues,
+               final String lyric, final String genre, final Integer releaseYear,
+               final String artist) {
+        int row = rows++;
+        durations[row] = duration == null ? NO_DURATION : duration;
+        years[row] = year(row, releaseYear);
+        albums[row] = store.code(album);
+        artists[row] = store.code(artist);
+        genres[row] = store.code(genre);
+        lyrics[row] = lyric;
+        foldedLyrics[row] = lyric == null ? null : lyric.toLowerCase();
+
+        int end = row == 0 ? 0 : tagEnds[row - 1];
+        if (tagValues != null) {
+            int[] codes = tags;
+            for (String tag : tagValues) {
+                if (end == codes.length) {
+                    codes = Arrays.copyOf(codes, codes.length * 2);
+                }
+                codes[end++] = store.code(tag);
+            }
+            tags = codes;
+        }
+        tagEnds[row] = end;
+        return row;
+    }
+
+    /**
+     * Release year of a row that has one.
+     *
+     * @param row the row
+     * @return the year
+     */
+    int year(final int row) {
+        short year = years[row];
+        return year == WIDE_YEAR ? wideYears[row] : year;
+    }
+
+    int tagStart(final int row) {
+        return row == 0 ? 0 : tagEnds[row - 1];
+    }
+
+    private short year(final int row, final Integer releaseYear) {
+        if (releaseYear == null) {
+            return NO_YEAR;
+        }
+        if (releaseYear <= WIDE_YEAR || releaseYear > Short.MAX_VALUE) {
+            int[] wide = wideYears == null ? new int[ROWS] : wideYears;
+            wide[row] = releaseYear;
+            wideYears = wide;
+            return WIDE_YEAR;
+        }
+        return releaseYear.shortValue();
+    }
+}
@@ -0,0 +1,131 @@
+package app.audio.Files;
+
+import app.utils.StringPool;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The chunks of {@link SongColumns} the songs of one catalog live in, and the dictionary their
+ * album, artist, genre and tag codes point into. Each execution context builds its songs into
+ * its own store, so replays on different threads never wait on each other's, and a new store is
+ * started whenever a catalog is built from scratch. The dictionary only holds the distinct
+ * values of the songs built into the store and goes away with the last of them. When a run
+ * reuses the catalog, the store is truncated back to the songs of the catalog, dropping the
+ * rows and values of songs earlier runs added.
+ */
+public final class SongStore {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[SongColumns.ROWS];
+    private volatile int[] foldedCodes = new int[SongColumns.ROWS];
+    private int nextCode;
+    private SongColumns filling;
+    private int baseCodes;
+    private SongColumns baseChunk;
+    private int baseRows;
+
+    /**
+     * Marks the songs built so far as those of the catalog, the ones {@link #truncate()} keeps.
+     */
+    public synchronized void markBase() {
+        baseCodes = nextCode;
+        baseChunk = filling;
+        baseRows = filling == null ? 0 : filling.rows();
+    }
+
+    /**
+     * Drops the rows and dictionary values of the songs built after {@link #markBase()}. Those
+     * songs must no longer be reachable: their rows are handed out again.
+     */
+    public synchronized void truncate() {
+        String[] kept = values;
+        for (int code = baseCodes; code < nextCode; code++) {
+            codes.remove(kept[code]);
+            kept[code] = null;
+        }
+        nextCode = baseCodes;
+        filling = baseChunk;
+        if (baseChunk != null) {
+            baseChunk.truncate(baseRows);
+        }
+    }
+
+    /**
+     * Gets a chunk with room for one more row. Callers hold the lock of the store until the row
+     * is filled, so that no other song takes it.
+     *
+     * @return the chunk
+     */
+    SongColumns withRoom() {
+        if (filling == null || filling.isFull()) {
+            filling = new SongColumns(this);
+        }
+        return filling;
+    }
+
+    /**
+     * Code of the lower-cased value a stored value matches as.
+     *
+     * @param code the code of the stored value
+     * @return the folded code, or {@link SongColumns#NONE}
+     */
+    int folded(final int code) {
+        return code == SongColumns.NONE ? SongColumns.NONE : foldedCodes[code];
+    }
+
+    /**
+     * Value stored under a code.
+     *
+     * @param code the code
+     * @return the value, or null
+     */
+    String value(final int code) {
+        return code == SongColumns.NONE ? null : values[code];
+    }
+
+    /**
+     * Code a filter value matches, compared case-insensitively.
+     *
+     * @param value the value
+     * @return the code, or {@link SongColumns#NONE} if no song has the value
+     */
+    int codeOf(final String value) {
+        return codes.getOrDefault(value.toLowerCase(), SongColumns.NONE);
+    }
+
+    /**
+     * Code of a value, added if it is new. Called while a row is filled.
+     *
+     * @param value the value
+     * @return the code, or {@link SongColumns#NONE}
+     */
+    int code(final String value) {
+        if (value == null) {
+            return SongColumns.NONE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String folded = value.toLowerCase();
+        int foldedCode = folded.equals(value) ? SongColumns.NONE : code(folded);
+        return add(StringPool.intern(value), foldedCode);
+    }
+
+    private int add(final String value, final int foldedCode) {
+        int added = nextCode++;
+        String[] addedValues = values;
+        int[] addedFolded = foldedCodes;
+        if (added == addedValues.length) {
+            addedValues = Arrays.copyOf(addedValues, added * 2);
+            addedFolded = Arrays.copyOf(addedFolded, added * 2);
+        }
+        addedValues[added] = value;
+        addedFolded[added] = foldedCode == SongColumns.NONE ? added : foldedCode;
+        values = addedValues;
+        foldedCodes = addedFolded;
+        codes.put(value, added);
+        return added;
+    }
+}
@@ -1,5 +1,6 @@
 package app.audio;
 
+import app.searchBar.NumericRange;
 import lombok.Getter;
 
 import java.util.ArrayList;
@@ -10,7 +11,7 @@ import java.util.ArrayList;
 @Getter
 public abstract class LibraryEntry {
     private final String name;
-    private final String username;
+    private final String foldedName;
 
     /**
      * Instantiates a new Library entry.
@@ -19,7 +20,26 @@ public abstract class LibraryEntry {
      */
     public LibraryEntry(final String name) {
         this.name = name;
-        this.username = new String();
+        this.foldedName = fold(name);
+    }
+
+    /**
+     * Gets the username of an entry that is a user, empty for any other entry.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return "";
+    }
+
+    /**
+     * Lower-cases a value once so matching does not have to do it per comparison.
+     *
+     * @param value the value
+     * @return the folded value, or null
+     */
+    protected static String fold(final String value) {
+        return value == null ? null : value.toLowerCase();
     }
 
     /**
@@ -29,7 +49,7 @@ public abstract class LibraryEntry {
      * @return the boolean
      */
     public boolean matchesName(final String nameFilter) {
-        return getName().toLowerCase().startsWith(nameFilter.toLowerCase());
+        return foldedName.startsWith(nameFilter.toLowerCase());
     }
 
     /**
@@ -90,6 +110,16 @@ public abstract class LibraryEntry {
      * @return the boolean
      */
     public boolean matchesReleaseYear(final String releaseYear) {
+        return matchesReleaseYear(NumericRange.parse(releaseYear));
+    }
+
+    /**
+     * Matches release year boolean.
+     *
+     * @param releaseYear the parsed release year filter
+     * @return the boolean
+     */
+    public boolean matchesReleaseYear(final NumericRange releaseYear) {
         return false;
     }
 
@@ -120,6 +150,16 @@ public abstract class LibraryEntry {
      * @return the boolean
      */
     public boolean matchesFollowers(final String followers) {
+        return matchesFollowers(NumericRange.parse(followers));
+    }
+
+    /**
+     * Matches followers boolean.
+     *
+     * @param followers the parsed followers filter
+     * @return the boolean
+     */
+    public boolean matchesFollowers(final NumericRange followers) {
         return false;
     }
 
@@ -0,0 +1,20 @@
+package app.commands;
+
+import app.user.User;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+
+/**
+ * Runs one command and builds its output.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Executes the command.
+     *
+     * @param commandInput the command input
+     * @param user         the user named by the command, or null if there is none
+     * @return the output, or null if the command produces a null output
+     */
+    ObjectNode execute(CommandInput commandInput, User user);
+}
@@ -0,0 +1,322 @@
+package app.commands;
+
+import app.Admin;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fileio.input.CommandInput;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of the commands that change state, from which a restarted
+ * process rebuilds what a run had done. After a header, every record is the length of the
+ * command, a CRC32 of it and the command as JSON.
+ *
+ * Appends only fill a buffer. A syncer thread writes the buffer as a group, with one write and
+ * one fsync, once it holds a given number of records or a given time has passed since its
+ * first record, while appends go on into a second buffer; so the replay never waits for the
+ * disk. A crash loses at most the groups not synced yet. A record torn by the crash fails its
+ * length or checksum and is dropped, with everything after it, when the log is read or
+ * reopened.
+ */
+public final class CommandLog implements Closeable {
+    private static final int MAGIC = 0x434d444c;
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int MAX_RECORD = 1 << 26;
+    private static final int BUFFER = 1 << 16;
+    private static final ObjectWriter WRITER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writerFor(CommandInput.class);
+    private static final ObjectReader READER = new ObjectMapper()
+            .readerFor(CommandInput.class);
+
+    private final FileChannel channel;
+    private final int recordsPerSync;
+    private final long nanosPerSync;
+    private final CRC32 checksum = new CRC32();
+    private final Object writing = new Object();
+    private final Thread syncer;
+    private ByteBuffer filling = ByteBuffer.allocate(BUFFER);
+    private ByteBuffer draining = ByteBuffer.allocate(BUFFER);
+    private int unsynced;
+    private long firstUnsynced;
+    private boolean closed;
+    private IOException failure;
+
+    private CommandLog(final Path path, final FileChannel channel, final int recordsPerSync,
+                       final long millisPerSync) {
+        this.channel = channel;
+        this.recordsPerSync = recordsPerSync;
+        this.nanosPerSync = TimeUnit.MILLISECONDS.toNanos(millisPerSync);
+        this.syncer = new Thread(this::syncGroups, "command-log " + path.getFileName());
+        syncer.setDaemon(true);
+    }
+
+    /**
+     * Starts an empty log for a new run, dropping whatever a file at the path held.
+     *
+     * @param path           the path
+     * @param recordsPerSync how many records a group holds at most
+     * @param millisPerSync  how long a record waits for its group to be synced at most
+     * @return the command log
+     * @throws IOException in case of exceptions to writing
+     */
+    public static CommandLog create(final Path path, final int recordsPerSync,
+                                    final long millisPerSync) throws IOException {
+        return start(path, 0, recordsPerSync, millisPerSync);
+    }
+
+    /**
+     * Reopens a log to resume the run that wrote it, creating it if needed. A torn record
+     * left at the end by a crash is cut off.
+     *
+     * @param path           the path
+     * @param recordsPerSync how many records a group holds at most
+     * @param millisPerSync  how long a record waits for its group to be synced at most
+     * @return the command log
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static CommandLog open(final Path path, final int recordsPerSync,
+                                  final long millisPerSync) throws IOException {
+        long end = Files.exists(path) ? read(path, payload -> { }) : 0;
+        return start(path, end, recordsPerSync, millisPerSync);
+    }
+
+    private static CommandLog start(final Path path, final long end, final int recordsPerSync,
+                                    final long millisPerSync) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        channel.truncate(end);
+        channel.position(end);
+        CommandLog log = new CommandLog(path, channel, recordsPerSync, millisPerSync);
+        if (end == 0) {
+            log.filling.putInt(MAGIC);
+        }
+        log.syncer.start();
+        return log;
+    }
+
+    /**
+     * Replays a log through a registry, on top of whatever the calling thread holds: normally
+     * the library the logged run started from. A command that failed when first run fails
+     * again and is skipped, as the run did not get past it either.
+     *
+     * @param path     the path
+     * @param registry the registry
+     * @return the number of commands replayed
+     * @throws IOException in case of exceptions to reading
+     */
+    public static int replay(final Path path, final CommandRegistry registry)
+            throws IOException {
+        int[] replayed = {0};
+        read(path, payload -> {
+            CommandInput command = READER.readValue(payload);
+            Admin.updateTimestamp(command.getTimestamp());
+            try {
+                registry.dispatch(command);
+            } catch (RuntimeException e) {
+                // the logged run stopped at this command too
+            }
+            replayed[0]++;
+        });
+        return replayed[0];
+    }
+
+    /**
+     * Appends a command. It reaches the disk with its group.
+     *
+     * @param command the command input
+     * @throws IOException in case of exceptions to writing, this or an earlier group
+     */
+    public void append(final CommandInput command) throws IOException {
+        byte[] payload = WRITER.writeValueAsBytes(command);
+        checksum.reset();
+        checksum.update(payload);
+        int crc = (int) checksum.getValue();
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+            filling = ensureRoom(filling, RECORD_HEADER + payload.length);
+            filling.putInt(payload.length).putInt(crc).put(payload);
+            if (unsynced++ == 0) {
+                firstUnsynced = System.nanoTime();
+                notifyAll();
+            } else if (unsynced >= recordsPerSync) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes everything appended so far and forces it to the disk, without waiting for the
+     * group to fill.
+     *
+     * @throws IOException in case of exceptions to writing, this or an earlier group
+     */
+    public void sync() throws IOException {
+        synchronized (writing) {
+            ByteBuffer group;
+            synchronized (this) {
+                if (failure != null) {
+                    throw failure;
+                }
+                group = filling;
+                filling = draining;
+                draining = group;
+                unsynced = 0;
+            }
+            if (group.position() == 0) {
+                return;
+            }
+            group.flip();
+            try {
+                while (group.hasRemaining()) {
+                    channel.write(group);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                }
+                throw e;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Syncs the last group, stops the syncer and closes the log.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void syncGroups() {
+        try {
+            while (awaitGroup()) {
+                sync();
+            }
+        } catch (IOException e) {
+            // kept as the failure, the next append or sync throws it
+        }
+    }
+
+    /**
+     * Waits until the group is full or its first record has waited long enough.
+     *
+     * @return false once the log is closing
+     */
+    private synchronized boolean awaitGroup() {
+        try {
+            while (!closed) {
+                if (unsynced >= recordsPerSync) {
+                    return true;
+                }
+                if (unsynced == 0) {
+                    wait();
+                    continue;
+                }
+                long left = firstUnsynced + nanosPerSync - System.nanoTime();
+                if (left <= 0) {
+                    return true;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static ByteBuffer ensureRoom(final ByteBuffer buffer, final int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+                buffer.position() + bytes));
+        buffer.flip();
+        return larger.put(buffer);
+    }
+
+    @FunctionalInterface
+    private interface RecordHandler {
+        void accept(byte[] payload) throws IOException;
+    }
+
+    /**
+     * Reads the records of a log in order, stopping at the first torn one.
+     *
+     * @param path    the path
+     * @param records gets every whole record
+     * @return the length of the log up to the end of the last whole record, 0 if even the
+     * header is missing
+     * @throws IOException in case of exceptions to reading
+     */
+    private static long read(final Path path, final RecordHandler records) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(path + " is not a command log");
+                }
+            } catch (EOFException e) {
+                return 0;
+            }
+            long end = Integer.BYTES;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                long expected;
+                try {
+                    int length = in.readInt();
+                    expected = Integer.toUnsignedLong(in.readInt());
+                    if (length < 0 || length > MAX_RECORD) {
+                        return end;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return end;
+                }
+                crc.reset();
+                crc.update(payload);
+                if (crc.getValue() != expected) {
+                    return end;
+                }
+                records.accept(payload);
+                end += RECORD_HEADER + payload.length;
+            }
+        }
+    }
+}
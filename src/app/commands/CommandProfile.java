@@ -0,0 +1,99 @@
+package app.commands;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * What the commands of one replay cost: per command name the count, latency percentiles and
+ * allocated bytes, plus the slowest individual invocations. Commands running concurrently may
+ * record at the same time.
+ */
+public final class CommandProfile {
+    private static final int SLOWEST = 10;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+
+    private final Map<String, CommandStats> byCommand = new TreeMap<>();
+    private final PriorityQueue<Invocation> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(invocation -> invocation.nanos));
+
+    /**
+     * Records one invocation.
+     *
+     * @param commandInput the command input
+     * @param nanos        how long it took
+     * @param bytes        how many bytes it allocated
+     */
+    public synchronized void record(final CommandInput commandInput, final long nanos,
+                                    final long bytes) {
+        byCommand.computeIfAbsent(commandInput.getCommand(), name -> new CommandStats())
+                .record(nanos, bytes);
+        if (slowest.size() < SLOWEST || slowest.peek().nanos < nanos) {
+            slowest.add(new Invocation(commandInput, nanos, bytes));
+            if (slowest.size() > SLOWEST) {
+                slowest.poll();
+            }
+        }
+    }
+
+    /**
+     * Converts the profile to JSON.
+     *
+     * @return the object node
+     */
+    public synchronized ObjectNode toJson() {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        ObjectNode profile = factory.objectNode();
+
+        ObjectNode commands = profile.putObject("commands");
+        for (Map.Entry<String, CommandStats> entry : byCommand.entrySet()) {
+            CommandStats stats = entry.getValue();
+            ObjectNode command = commands.putObject(entry.getKey());
+            command.put("count", stats.getCount());
+            command.put("totalNanos", stats.getTotalNanos());
+            command.put("p50Nanos", stats.percentile(P50));
+            command.put("p99Nanos", stats.percentile(P99));
+            command.put("maxNanos", stats.getMaxNanos());
+            command.put("allocatedBytes", stats.getAllocatedBytes());
+        }
+
+        List<Invocation> invocations = new ArrayList<>(slowest);
+        invocations.sort(Comparator.comparingLong((Invocation invocation) -> invocation.nanos)
+                .reversed());
+        ArrayNode slowestNode = profile.putArray("slowest");
+        for (Invocation invocation : invocations) {
+            ObjectNode node = slowestNode.addObject();
+            node.put("command", invocation.command);
+            node.put("user", invocation.username);
+            node.put("timestamp", invocation.timestamp);
+            node.put("nanos", invocation.nanos);
+            node.put("allocatedBytes", invocation.bytes);
+        }
+        return profile;
+    }
+
+    private static final class Invocation {
+        private final String command;
+        private final String username;
+        private final Integer timestamp;
+        private final long nanos;
+        private final long bytes;
+
+        private Invocation(final CommandInput commandInput, final long nanos, final long bytes) {
+            this.command = commandInput.getCommand();
+            this.username = commandInput.getUsername();
+            this.timestamp = commandInput.getTimestamp();
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+}
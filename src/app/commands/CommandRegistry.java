@@ -0,0 +1,222 @@
+package app.commands;
+
+import app.Admin;
+import app.CommandRunner;
+import app.user.User;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static app.commands.CommandTrait.PER_USER;
+import static app.commands.CommandTrait.READ_ONLY;
+
+/**
+ * Maps command names to their handlers. Dispatch resolves the user named by the command once,
+ * hands it to the handler and records the latency and the bytes allocated by the calling
+ * thread in the command's {@link CommandStats}.
+ * Extra commands are added with {@link #register(String, CommandHandler, CommandTrait...)} on
+ * the default registry, without touching the dispatch loop.
+ *
+ * The traits a command is registered with tell what it leaves alone: {@link UserActors} may run
+ * {@link CommandTrait#PER_USER} commands of different users at the same time, and
+ * {@link CommandLog} skips {@link CommandTrait#READ_ONLY} ones.
+ */
+public final class CommandRegistry {
+    private static final CommandRegistry DEFAULT = withBuiltins();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final Map<String, Registration> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the registry used by Main, holding every built-in command.
+     *
+     * @return the registry
+     */
+    public static CommandRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    private static CommandRegistry withBuiltins() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.register("search", CommandRunner::search, PER_USER);
+        registry.register("select", CommandRunner::select, PER_USER);
+        registry.register("load", CommandRunner::load, PER_USER);
+        registry.register("playPause", CommandRunner::playPause, PER_USER);
+        registry.register("repeat", CommandRunner::repeat, PER_USER);
+        registry.register("shuffle", CommandRunner::shuffle, PER_USER);
+        registry.register("forward", CommandRunner::forward, PER_USER);
+        registry.register("backward", CommandRunner::backward, PER_USER);
+        registry.register("like", CommandRunner::like, PER_USER);
+        registry.register("next", CommandRunner::next, PER_USER);
+        registry.register("prev", CommandRunner::prev, PER_USER);
+        registry.register("createPlaylist", CommandRunner::createPlaylist);
+        registry.register("addRemoveInPlaylist", CommandRunner::addRemoveInPlaylist);
+        registry.register("switchVisibility", CommandRunner::switchVisibility);
+        registry.register("showPlaylists", CommandRunner::showPlaylists, PER_USER, READ_ONLY);
+        registry.register("follow", CommandRunner::follow);
+        registry.register("status", CommandRunner::status, PER_USER, READ_ONLY);
+        registry.register("showPreferredSongs", CommandRunner::showLikedSongs, PER_USER, READ_ONLY);
+        registry.register("getPreferredGenre",
+                CommandRunner::getPreferredGenre, PER_USER, READ_ONLY);
+        registry.register("getTop5Songs",
+                (input, user) -> CommandRunner.getTop5Songs(input), READ_ONLY);
+        registry.register("getTop5Playlists",
+                (input, user) -> CommandRunner.getTop5Playlists(input), READ_ONLY);
+        registry.register("switchConnectionStatus",
+                CommandRunner::switchConnectionStatus, PER_USER);
+        registry.register("getOnlineUsers",
+                (input, user) -> CommandRunner.getOnlineUsers(input), READ_ONLY);
+        registry.register("addUser", CommandRunner::addUsers);
+        registry.register("addAlbum", CommandRunner::addAlbum);
+        registry.register("getTop5Albums",
+                (input, user) -> CommandRunner.getTop5Albums(input), READ_ONLY);
+        registry.register("addPodcast", CommandRunner::addPodcast);
+        registry.register("removePodcast", CommandRunner::removePodcast);
+        registry.register("printCurrentPage", CommandRunner::printCurrentPage);
+        registry.register("showAlbums", CommandRunner::showAlbum, READ_ONLY);
+        registry.register("showPodcasts", CommandRunner::showPodcasts, READ_ONLY);
+        registry.register("addEvent", CommandRunner::addEvent);
+        registry.register("addMerch", CommandRunner::addMerch);
+        registry.register("getAllUsers",
+                (input, user) -> CommandRunner.getAllUsers(input), READ_ONLY);
+        registry.register("deleteUser", CommandRunner::deleteUser);
+        registry.register("addAnnouncement", CommandRunner::addAnnouncement);
+        registry.register("removeAnnouncement", CommandRunner::removeAnnouncement);
+        registry.register("removeAlbum", CommandRunner::removeAlbum);
+        registry.register("changePage", CommandRunner::changePage);
+        registry.register("removeEvent", CommandRunner::removeEvent);
+        registry.register("getTop5Artists",
+                (input, user) -> CommandRunner.getTop5Artists(input), READ_ONLY);
+        return registry;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported()) {
+            counter.setThreadAllocatedMemoryEnabled(true);
+            return counter;
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Registers a command, replacing any handler registered under the same name.
+     *
+     * @param name    the command name
+     * @param handler the handler
+     * @param traits  what the command leaves alone
+     */
+    public void register(final String name, final CommandHandler handler,
+                         final CommandTrait... traits) {
+        Set<CommandTrait> traitSet = EnumSet.noneOf(CommandTrait.class);
+        traitSet.addAll(Arrays.asList(traits));
+        commands.put(name, new Registration(handler, traitSet));
+    }
+
+    /**
+     * Is registered boolean.
+     *
+     * @param name the command name
+     * @return the boolean
+     */
+    public boolean isRegistered(final String name) {
+        return commands.containsKey(name);
+    }
+
+    /**
+     * Whether a command only touches the user issuing it.
+     *
+     * @param name the command name
+     * @return the boolean
+     */
+    public boolean isPerUser(final String name) {
+        return hasTrait(name, CommandTrait.PER_USER);
+    }
+
+    /**
+     * Whether a command changes nothing a later command can observe.
+     *
+     * @param name the command name
+     * @return the boolean
+     */
+    public boolean isReadOnly(final String name) {
+        return hasTrait(name, CommandTrait.READ_ONLY);
+    }
+
+    private boolean hasTrait(final String name, final CommandTrait trait) {
+        Registration registration = commands.get(name);
+        return registration != null && registration.traits.contains(trait);
+    }
+
+    /**
+     * Runs a registered command.
+     *
+     * @param commandInput the command input
+     * @return the output of the command
+     */
+    public ObjectNode dispatch(final CommandInput commandInput) {
+        return dispatch(commandInput, null);
+    }
+
+    /**
+     * Runs a registered command, also recording its latency and allocation in a profile.
+     *
+     * @param commandInput the command input
+     * @param profile      the profile, or null
+     * @return the output of the command
+     */
+    public ObjectNode dispatch(final CommandInput commandInput, final CommandProfile profile) {
+        Registration registration = commands.get(commandInput.getCommand());
+        if (registration == null) {
+            throw new IllegalArgumentException("Invalid command " + commandInput.getCommand());
+        }
+
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        User user = Admin.getUser(commandInput.getUsername());
+        ObjectNode output = registration.handler.execute(commandInput, user);
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - startBytes;
+
+        registration.stats.record(nanos, bytes);
+        if (profile != null) {
+            profile.record(commandInput, nanos, bytes);
+        }
+        return output;
+    }
+
+    /**
+     * Gets the statistics of every registered command, by name.
+     *
+     * @return the statistics
+     */
+    public Map<String, CommandStats> getStats() {
+        Map<String, CommandStats> stats = new TreeMap<>();
+        commands.forEach((name, registration) -> stats.put(name, registration.stats));
+        return stats;
+    }
+
+    private static final class Registration {
+        private final CommandHandler handler;
+        private final Set<CommandTrait> traits;
+        private final CommandStats stats = new CommandStats();
+
+        private Registration(final CommandHandler handler, final Set<CommandTrait> traits) {
+            this.handler = handler;
+            this.traits = traits;
+        }
+    }
+}
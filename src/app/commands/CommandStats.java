@@ -0,0 +1,118 @@
+package app.commands;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation count, latency distribution and allocation of one command. Safe to update from
+ * several threads at once without locking.
+ *
+ * Latencies go into a log-linear histogram: every power of two is split into eight equal
+ * buckets, so a percentile read back from it is within 12.5% of the exact value, at a fixed
+ * cost of a few hundred counters per command.
+ */
+public final class CommandStats {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+    private static final double HUNDRED = 100.0;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records one invocation.
+     *
+     * @param nanos how long it took
+     * @param bytes how many bytes it allocated
+     */
+    public void record(final long nanos, final long bytes) {
+        long latency = Math.max(nanos, 0);
+        count.increment();
+        totalNanos.add(latency);
+        allocatedBytes.add(bytes);
+        maxNanos.accumulate(latency);
+        histogram.incrementAndGet(bucketOf(latency));
+    }
+
+    private static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS));
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    private static long lowestValueIn(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return mantissa << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Gets count.
+     *
+     * @return the number of invocations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets total nanos.
+     *
+     * @return the time spent in all invocations
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets allocated bytes.
+     *
+     * @return the bytes allocated by all invocations
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Gets max nanos.
+     *
+     * @return the slowest invocation
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Latency below which the given share of the invocations fell.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long percentile(final double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / HUNDRED * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                long highest = i + 1 < BUCKETS ? lowestValueIn(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(highest, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,16 @@
+package app.commands;
+
+/**
+ * What a command is known to leave alone. A command registered without traits may touch any
+ * state.
+ */
+public enum CommandTrait {
+    /**
+     * Only touches the user issuing it, its player and its search bar.
+     */
+    PER_USER,
+    /**
+     * Changes nothing a later command can observe, so the command log leaves it out.
+     */
+    READ_ONLY
+}
@@ -0,0 +1,249 @@
+package app.commands;
+
+import app.Admin;
+import app.ExecutionContext;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.input.CommandInput;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays the commands of one file with an actor per user. Every user has a mailbox that one
+ * worker at a time drains in order, so per-user commands of different users issued at the same
+ * timestamp run concurrently while those of one user keep their order. Any other command, and
+ * every new timestamp, is a barrier: it waits for everything submitted before it and then runs
+ * alone on the calling thread.
+ *
+ * Outputs are written in input order: every command takes a slot when submitted, and a slot is
+ * written once it and all slots before it are done. A command that throws ends the replay at
+ * its slot, with the outputs before it written, the same as a serial replay.
+ *
+ * Selecting from artist or host results moves a user onto the shared page registry, so after
+ * a user searches for artists or hosts its commands are barriers until its next search.
+ */
+public final class UserActors implements AutoCloseable {
+    private static final String SEARCH = "search";
+
+    private final CommandRegistry registry;
+    private final CommandProfile profile;
+    private final Output output;
+    private final ExecutionContext context = ExecutionContext.current();
+    private final ExecutorService workers;
+    private final Map<String, Mailbox> mailboxes = new HashMap<>();
+    private final Set<String> onSharedPages = new HashSet<>();
+    private final Queue<Slot> pending = new ArrayDeque<>();
+    private volatile boolean stopped;
+    private boolean started;
+    private Integer timestamp;
+
+    /**
+     * Where the outputs go, in input order.
+     */
+    @FunctionalInterface
+    public interface Output {
+        /**
+         * Writes the output of a command.
+         *
+         * @param output the output, or null if the command produced none
+         * @throws IOException in case of exceptions to writing
+         */
+        void write(ObjectNode output) throws IOException;
+    }
+
+    /**
+     * Instantiates actors working on the execution context of the calling thread, with one
+     * worker per processor.
+     *
+     * @param registry the registry
+     * @param profile  the profile, or null
+     * @param output   the output
+     */
+    public UserActors(final CommandRegistry registry, final CommandProfile profile,
+                      final Output output) {
+        this(registry, profile, output, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates actors working on the execution context of the calling thread.
+     *
+     * @param registry the registry
+     * @param profile  the profile, or null
+     * @param output   the output
+     * @param threads  the number of workers
+     */
+    public UserActors(final CommandRegistry registry, final CommandProfile profile,
+                      final Output output, final int threads) {
+        this.registry = registry;
+        this.profile = profile;
+        this.output = output;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "user-actor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a registered command. Outputs of earlier commands that are done by now are
+     * written.
+     *
+     * @param command the command input
+     * @throws IOException in case of exceptions to writing
+     */
+    public void submit(final CommandInput command) throws IOException {
+        if (!started || !Objects.equals(timestamp, command.getTimestamp())) {
+            awaitAll();
+            Admin.updateTimestamp(command.getTimestamp());
+            timestamp = command.getTimestamp();
+            started = true;
+        }
+
+        String username = command.getUsername();
+        boolean perUser = registry.isPerUser(command.getCommand())
+                && !onSharedPages.contains(username);
+        if (SEARCH.equals(command.getCommand())) {
+            if ("artist".equals(command.getType()) || "host".equals(command.getType())) {
+                onSharedPages.add(username);
+            } else {
+                onSharedPages.remove(username);
+            }
+        }
+
+        if (!perUser) {
+            awaitAll();
+            output.write(registry.dispatch(command, profile));
+            return;
+        }
+
+        Slot slot = new Slot(command);
+        pending.add(slot);
+        mailboxes.computeIfAbsent(username, name -> new Mailbox()).post(slot);
+        while (!pending.isEmpty() && pending.peek().result.isDone()) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Waits for every submitted command and writes the outputs not written yet.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    public void finish() throws IOException {
+        awaitAll();
+    }
+
+    /**
+     * Stops the workers. Commands not run yet are dropped.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        for (Slot slot : pending) {
+            slot.result.handle((result, failure) -> result).join();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitAll() throws IOException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        ObjectNode result;
+        try {
+            result = pending.peek().result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+        pending.remove();
+        output.write(result);
+    }
+
+    private final class Slot {
+        private final CommandInput command;
+        private final CompletableFuture<ObjectNode> result = new CompletableFuture<>();
+
+        private Slot(final CommandInput command) {
+            this.command = command;
+        }
+
+        /**
+         * Runs the command, unless an earlier command of the same user failed.
+         *
+         * @param skip whether an earlier command of the same user failed
+         * @return whether this or an earlier command of the same user failed
+         */
+        private boolean run(final boolean skip) {
+            if (skip || stopped) {
+                result.cancel(false);
+                return skip;
+            }
+            try {
+                result.complete(registry.dispatch(command, profile));
+                return false;
+            } catch (RuntimeException | Error failure) {
+                result.completeExceptionally(failure);
+                return true;
+            }
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+        private final Queue<Slot> slots = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean failed;
+
+        private void post(final Slot slot) {
+            slots.add(slot);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            context.run(() -> {
+                for (Slot slot = slots.poll(); slot != null; slot = slots.poll()) {
+                    failed = slot.run(failed);
+                }
+            });
+            scheduled.set(false);
+            if (!slots.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package app.pages;
 
+import app.Admin;
+import app.ExecutionContext;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.ArrayList;
 
 public final class Page {
-    private static Page instance = null;
     private  ArrayList<HomePage> homePages = new ArrayList<>();
     @Getter @Setter
     private  ArrayList<ArtistPage> artistPages = new ArrayList<>();
@@ -15,9 +16,9 @@ public final class Page {
     private TypePage currentPage;
     @Getter
     private String currentUser;
-    @Getter @Setter
+    @Getter
     private String artistName;
-    @Getter @Setter
+    @Getter
     private String hostName;
 
     public Page() {
@@ -32,16 +33,34 @@ public final class Page {
     }
 
     /**
-     * @return instance
+     * @return the page registry of the current execution context
      */
     public static Page getInstance() {
-        if (instance == null) {
-            instance = new Page();
-        }
-        return instance;
+        return ExecutionContext.current().getPage();
     }
     public void setCurrentPage(final TypePage currentPage) {
         this.currentPage = currentPage;
+        Admin.pageChanged(this);
+    }
+
+    /**
+     * Sets the artist whose page is shown.
+     *
+     * @param artistName the artist name
+     */
+    public void setArtistName(final String artistName) {
+        this.artistName = artistName;
+        Admin.pageChanged(this);
+    }
+
+    /**
+     * Sets the host whose page is shown.
+     *
+     * @param hostName the host name
+     */
+    public void setHostName(final String hostName) {
+        this.hostName = hostName;
+        Admin.pageChanged(this);
     }
 
     public void setCurrentUser(final String currUser) {
@@ -1,5 +1,6 @@
 package app.player;
 
+import app.Admin;
 import app.audio.Collections.AudioCollection;
 import app.audio.Files.AudioFile;
 import app.audio.LibraryEntry;
@@ -8,20 +9,26 @@ import lombok.Getter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The type Player.
  */
 public final class Player {
+    @Getter
     private Enums.RepeatMode repeatMode;
     private boolean shuffle;
     private boolean paused;
+    @Getter
     private PlayerSource source;
     @Getter
     private String type;
     private final int skipTime = 90;
 
+    @Getter
     private ArrayList<PodcastBookmark> bookmarks = new ArrayList<>();
+    private AudioFile reportedFile;
+    private String reportedType;
 
 
     /**
@@ -44,6 +51,7 @@ public final class Player {
         paused = true;
         source = null;
         shuffle = false;
+        reportChange();
     }
 
     private void bookmarkPodcast() {
@@ -106,6 +114,43 @@ public final class Player {
         this.repeatMode = Enums.RepeatMode.NO_REPEAT;
         this.shuffle = false;
         this.paused = true;
+        reportChange();
+    }
+
+    /**
+     * Puts back the state of a player restored from a snapshot.
+     *
+     * @param sourceType    the type of the source
+     * @param restored      the source, or null
+     * @param mode          the repeat mode
+     * @param shuffled      the shuffle
+     * @param isPaused      the paused
+     * @param podcastMarks  the podcast bookmarks
+     */
+    public void restore(final String sourceType, final PlayerSource restored,
+                        final Enums.RepeatMode mode, final boolean shuffled,
+                        final boolean isPaused, final List<PodcastBookmark> podcastMarks) {
+        this.type = sourceType;
+        this.source = restored;
+        this.repeatMode = mode;
+        this.shuffle = shuffled;
+        this.paused = isPaused;
+        this.bookmarks = new ArrayList<>(podcastMarks);
+        this.reportedFile = getCurrentAudioFile();
+        this.reportedType = sourceType;
+    }
+
+    /**
+     * Tells the reference index what the player is on, if that changed since it was last told.
+     * Most clock advances stay on the same file, and those cost no more than this comparison.
+     */
+    private void reportChange() {
+        AudioFile file = getCurrentAudioFile();
+        if (file != reportedFile || !Objects.equals(type, reportedType)) {
+            reportedFile = file;
+            reportedType = type;
+            Admin.playerChanged(this);
+        }
     }
 
     /**
@@ -167,11 +212,20 @@ public final class Player {
      * @param time the time
      */
     public void simulatePlayer(final int time) {
+        advance(time);
+        reportChange();
+    }
+
+    private void advance(final int time) {
         if (source == null) {
             return;
         }
         int elapsedTime = time;
         if (!paused) {
+            if (elapsedTime >= source.getDuration()
+                    && source.advanceLooping(elapsedTime, repeatMode, shuffle)) {
+                return;
+            }
             while (elapsedTime >= source.getDuration()) {
                 elapsedTime -= source.getDuration();
                 next();
@@ -197,6 +251,7 @@ public final class Player {
         if (source.getDuration() == 0 && paused) {
             stop();
         }
+        reportChange();
     }
 
     /**
@@ -205,11 +260,13 @@ public final class Player {
     public void prev() {
         source.setPrevAudioFile(shuffle);
         paused = false;
+        reportChange();
     }
 
     private void skip(final int duration) {
         source.skip(duration);
         paused = false;
+        reportChange();
     }
 
     /**
@@ -242,6 +299,18 @@ public final class Player {
         return source.getAudioFile();
     }
 
+    /**
+     * Gets the collection the player is playing from.
+     *
+     * @return the collection, or null if the source is a single file
+     */
+    public AudioCollection getCurrentCollection() {
+        if (source == null) {
+            return null;
+        }
+        return source.getAudioCollection();
+    }
+
     /**
      * Gets paused.
      *
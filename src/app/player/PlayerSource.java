@@ -22,9 +22,13 @@ public class PlayerSource {
     private AudioFile audioFile;
     @Getter
     private int index;
+    @Getter
     private int indexShuffled;
     private int remainedDuration;
     private final List<Integer> indices = new ArrayList<>();
+    private long[] prefixDurations;
+    private boolean prefixShuffled;
+    private int prefixVersion;
 
     /**
      * Instantiates a new Player source.
@@ -70,6 +74,39 @@ public class PlayerSource {
         this.audioFile = audioCollection.getTrackByIndex(index);
     }
 
+    /**
+     * Instantiates a player source restored from a snapshot.
+     *
+     * @param type             the type
+     * @param audioCollection  the audio collection, or null for a single file
+     * @param audioFile        the audio file
+     * @param index            the index
+     * @param indexShuffled    the index in the shuffle order
+     * @param remainedDuration the remained duration
+     * @param indices          the shuffle order
+     */
+    public PlayerSource(final Enums.PlayerSourceType type,
+                        final AudioCollection audioCollection, final AudioFile audioFile,
+                        final int index, final int indexShuffled, final int remainedDuration,
+                        final List<Integer> indices) {
+        this.type = type;
+        this.audioCollection = audioCollection;
+        this.audioFile = audioFile;
+        this.index = index;
+        this.indexShuffled = indexShuffled;
+        this.remainedDuration = remainedDuration;
+        this.indices.addAll(indices);
+    }
+
+    /**
+     * Gets the shuffle order.
+     *
+     * @return the indices
+     */
+    public List<Integer> getIndices() {
+        return Collections.unmodifiableList(indices);
+    }
+
     /**
      * Gets duration.
      *
@@ -139,6 +176,88 @@ public class PlayerSource {
         return isPaused;
     }
 
+    /**
+     * Advances a source that loops forever straight to the track and offset reached after the
+     * elapsed time, instead of stepping through it one track at a time.
+     *
+     * @param elapsedTime the elapsed time, at least the remaining duration
+     * @param repeatMode  the repeat mode
+     * @param shuffle     the shuffle
+     * @return false if the source does not loop and has to be stepped through
+     */
+    public boolean advanceLooping(final int elapsedTime,
+                                 final Enums.RepeatMode repeatMode,
+                                 final boolean shuffle) {
+        if (repeatMode == Enums.RepeatMode.REPEAT_INFINITE
+                || repeatMode == Enums.RepeatMode.REPEAT_CURRENT_SONG
+                || (repeatMode == Enums.RepeatMode.REPEAT_ALL
+                    && type == Enums.PlayerSourceType.LIBRARY)) {
+            int length = audioFile.getDuration();
+            if (length <= 0) {
+                return false;
+            }
+            remainedDuration = length - (elapsedTime - remainedDuration) % length;
+            return true;
+        }
+        if (repeatMode != Enums.RepeatMode.REPEAT_ALL) {
+            return false;
+        }
+
+        long[] prefix = prefixDurations(shuffle);
+        int count = prefix.length - 1;
+        int position = shuffle ? indexShuffled : index;
+        if (count == 0 || prefix[count] == 0 || position >= count) {
+            return false;
+        }
+
+        int following = (position + 1) % count;
+        long offset = (prefix[following] + elapsedTime - remainedDuration) % prefix[count];
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (prefix[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (shuffle) {
+            indexShuffled = low;
+            index = indices.get(low);
+        } else {
+            index = low;
+        }
+        updateAudioFile();
+        remainedDuration = (int) (prefix[low + 1] - offset);
+        return true;
+    }
+
+    /**
+     * Start offsets of the tracks in play order, followed by the total length. Rebuilt only
+     * when the tracks or the shuffle order change.
+     */
+    private long[] prefixDurations(final boolean shuffle) {
+        int count = audioCollection.getNumberOfTracks();
+        if (shuffle && indices.size() != count) {
+            return new long[1];
+        }
+        int version = audioCollection.getTracksVersion();
+        if (prefixDurations == null || prefixShuffled != shuffle
+                || prefixVersion != version || prefixDurations.length != count + 1) {
+            long[] prefix = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                int track = shuffle ? indices.get(i) : i;
+                prefix[i + 1] = prefix[i] + audioCollection.getTrackByIndex(track).getDuration();
+            }
+            prefixDurations = prefix;
+            prefixShuffled = shuffle;
+            prefixVersion = version;
+        }
+        return prefixDurations;
+    }
+
     /**
      * Sets prev audio file.
      *
@@ -176,6 +295,7 @@ public class PlayerSource {
      */
     public void generateShuffleOrder(final Integer seed) {
         indices.clear();
+        prefixDurations = null;
         Random random = new Random(seed);
         for (int i = 0; i < audioCollection.getNumberOfTracks(); i++) {
             indices.add(i);
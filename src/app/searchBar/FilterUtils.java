@@ -1,10 +1,11 @@
 package app.searchBar;
 
+import app.audio.Files.Song;
 import app.audio.LibraryEntry;
-import app.user.User;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * The type Filter utils.
@@ -15,172 +16,104 @@ public final class FilterUtils {
     }
 
     /**
-     * Filter by name list.
+     * Compiles the filters set for a search into one fused predicate. Criteria are checked
+     * from the cheapest and most selective (exact field matches) to the most expensive
+     * (substring scans), and the first mismatch stops the evaluation. Song filters are
+     * resolved to dictionary codes here, so per song they compare ints and read its columns.
      *
-     * @param entries the entries
-     * @param name    the name
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByName(final List<LibraryEntry> entries,
-                                                  final String name) {
-        List<LibraryEntry> result = new ArrayList<>();
-        for (LibraryEntry entry : entries) {
-            if (entry.matchesName(name)) {
-                result.add(entry);
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Filter by album list.
-     *
-     * @param entries the entries
-     * @param album   the album
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByAlbum(final List<LibraryEntry> entries,
-                                                   final String album) {
-        return filter(entries, entry -> entry.matchesAlbum(album));
-    }
-
-    /**
-     * Filter by tags list.
-     *
-     * @param entries the entries
-     * @param tags    the tags
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByTags(final List<LibraryEntry> entries,
-                                                  final ArrayList<String> tags) {
-        return filter(entries, entry -> entry.matchesTags(tags));
-    }
-
-    /**
-     * Filter by lyrics list.
-     *
-     * @param entries the entries
-     * @param lyrics  the lyrics
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByLyrics(final List<LibraryEntry> entries,
-                                                    final String lyrics) {
-        return filter(entries, entry -> entry.matchesLyrics(lyrics));
-    }
-
-    /**
-     * Filter by genre list.
-     *
-     * @param entries the entries
-     * @param genre   the genre
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByGenre(final List<LibraryEntry> entries,
-                                                   final String genre) {
-        return filter(entries, entry -> entry.matchesGenre(genre));
-    }
-
-    /**
-     * Filter by artist list.
-     *
-     * @param entries the entries
-     * @param artist  the artist
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByArtist(final List<LibraryEntry> entries,
-                                                    final String artist) {
-        return filter(entries, entry -> entry.matchesArtist(artist));
-    }
-
-    /**
-     * Filter by release year list.
-     *
-     * @param entries     the entries
-     * @param releaseYear the release year
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByReleaseYear(final List<LibraryEntry> entries,
-                                                         final String releaseYear) {
-        return filter(entries, entry -> entry.matchesReleaseYear(releaseYear));
-    }
-
-    /**
-     * Filter by owner list.
-     *
-     * @param entries the entries
-     * @param user    the user
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByOwner(final List<LibraryEntry> entries,
-                                                   final String user) {
-        return filter(entries, entry -> entry.matchesOwner(user));
-    }
-
-    /**
-     * Filter by playlist visibility list.
-     *
-     * @param entries the entries
-     * @param user    the user
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByPlaylistVisibility(final List<LibraryEntry> entries,
-                                                                final String user) {
-        return filter(entries, entry -> entry.isVisibleToUser(user));
-    }
-
-    /**
-     * Filter by followers list.
+     * The order is fixed rather than estimated per search from posting-list sizes: the
+     * predicate only sees candidates the query already took from the intersection of the
+     * posting lists, which every exact-field criterion holds for, so what is left to order
+     * by is the cost of the checks.
      *
-     * @param entries   the entries
-     * @param followers the followers
-     * @return the list
+     * @param filters the filters
+     * @param type    the search type
+     * @param user    the user searching
+     * @return the predicate
      */
-    public static List<LibraryEntry> filterByFollowers(final List<LibraryEntry> entries,
-                                                       final String followers) {
-        return filter(entries, entry -> entry.matchesFollowers(followers));
-    }
-
-    private static List<LibraryEntry> filter(final List<LibraryEntry> entries,
-                                             final FilterCriteria criteria) {
-        List<LibraryEntry> result = new ArrayList<>();
-        for (LibraryEntry entry : entries) {
-            if (criteria.matches(entry)) {
-                result.add(entry);
-            }
+    public static Predicate<LibraryEntry> compile(final Filters filters, final String type,
+                                                  final String user) {
+        List<FilterCriteria> criteria = new ArrayList<>();
+        // folded once here, so the per-entry toLowerCase calls return the same instance
+        String name = fold(filters.getName());
+
+        switch (type) {
+            case "song":
+                String lyrics = fold(filters.getLyrics());
+                if (filters.getGenre() != null) {
+                    int genre = Song.codeOf(filters.getGenre());
+                    criteria.add(entry -> ((Song) entry).hasGenre(genre));
+                }
+                if (filters.getAlbum() != null) {
+                    int album = Song.codeOf(filters.getAlbum());
+                    criteria.add(entry -> ((Song) entry).hasAlbum(album));
+                }
+                if (filters.getArtist() != null) {
+                    int artist = Song.codeOf(filters.getArtist());
+                    criteria.add(entry -> ((Song) entry).hasArtist(artist));
+                }
+                if (filters.getTags() != null) {
+                    int[] tags = new int[filters.getTags().size()];
+                    for (int i = 0; i < tags.length; i++) {
+                        tags[i] = Song.codeOf(filters.getTags().get(i));
+                    }
+                    criteria.add(entry -> ((Song) entry).hasTags(tags));
+                }
+                if (name != null) {
+                    criteria.add(entry -> entry.matchesName(name));
+                }
+                if (filters.getReleaseYear() != null) {
+                    NumericRange years = NumericRange.parse(filters.getReleaseYear());
+                    criteria.add(entry -> ((Song) entry).hasReleaseYear(years));
+                }
+                if (lyrics != null) {
+                    criteria.add(entry -> ((Song) entry).hasLyrics(lyrics));
+                }
+                break;
+            case "playlist":
+                criteria.add(entry -> entry.isVisibleToUser(user));
+                if (filters.getOwner() != null) {
+                    criteria.add(entry -> entry.matchesOwner(filters.getOwner()));
+                }
+                if (name != null) {
+                    criteria.add(entry -> entry.matchesName(name));
+                }
+                if (filters.getFollowers() != null) {
+                    NumericRange followers = NumericRange.parse(filters.getFollowers());
+                    criteria.add(entry -> entry.matchesFollowers(followers));
+                }
+                break;
+            case "podcast":
+            case "album":
+                if (filters.getOwner() != null) {
+                    criteria.add(entry -> entry.matchesOwner(filters.getOwner()));
+                }
+                if (name != null) {
+                    criteria.add(entry -> entry.matchesName(name));
+                }
+                if ("album".equals(type) && filters.getDescription() != null) {
+                    criteria.add(entry -> entry.matchesDescription(filters.getDescription()));
+                }
+                break;
+            default:
+                if (name != null) {
+                    criteria.add(entry -> entry.matchesName(name));
+                }
         }
-        return result;
-    }
 
-    /**
-     * Filter by album description.
-     *
-     * @param entries the entries
-     * @param description the description
-     * @return the list
-     */
-    public static List<LibraryEntry> filterByAlbumDescription(final List<LibraryEntry> entries,
-                                                              final String description) {
-        return filter(entries, entry -> entry.matchesDescription(description));
+        FilterCriteria[] fused = criteria.toArray(new FilterCriteria[0]);
+        return entry -> {
+            for (FilterCriteria criterion : fused) {
+                if (!criterion.matches(entry)) {
+                    return false;
+                }
+            }
+            return true;
+        };
     }
 
-    /**
-     * Filter by username.
-     *
-     * @param users the users
-     * @param usernameFilter the username
-     * @return the list
-     */
-    public static List<User> filterByUsername(final List<User> users,
-                                              final String usernameFilter) {
-        List<User> filteredUsers = new ArrayList<>();
-
-        for (User user : users) {
-            if (usernameFilter == null
-                    || user.getUsername().toLowerCase().startsWith(usernameFilter.toLowerCase())) {
-                filteredUsers.add(user);
-            }
-        }
-        return filteredUsers;
+    private static String fold(final String value) {
+        return value == null ? null : value.toLowerCase();
     }
 
     @FunctionalInterface
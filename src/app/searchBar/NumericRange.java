@@ -0,0 +1,69 @@
+package app.searchBar;
+
+/**
+ * A numeric search filter such as "&lt;1990", "&gt;5" or "2000", parsed once per search.
+ */
+public final class NumericRange {
+    private final long min;
+    private final long max;
+
+    private NumericRange(final long min, final long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Parses a filter: "&lt;n" is strictly below n, "&gt;n" strictly above n, anything else
+     * must equal n.
+     *
+     * @param query the filter
+     * @return the range
+     */
+    public static NumericRange parse(final String query) {
+        if (query.startsWith("<")) {
+            return new NumericRange(Long.MIN_VALUE, Integer.parseInt(query.substring(1)) - 1L);
+        } else if (query.startsWith(">")) {
+            return new NumericRange(Integer.parseInt(query.substring(1)) + 1L, Long.MAX_VALUE);
+        } else {
+            int value = Integer.parseInt(query);
+            return new NumericRange(value, value);
+        }
+    }
+
+    /**
+     * Contains boolean.
+     *
+     * @param value the value
+     * @return the boolean
+     */
+    public boolean contains(final int value) {
+        return value >= min && value <= max;
+    }
+
+    /**
+     * Lowest int in the range.
+     *
+     * @return the lower bound
+     */
+    public int lowerBound() {
+        return (int) Math.max(min, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Highest int in the range.
+     *
+     * @return the upper bound
+     */
+    public int upperBound() {
+        return (int) Math.min(max, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Is empty boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isEmpty() {
+        return min > max || max < Integer.MIN_VALUE || min > Integer.MAX_VALUE;
+    }
+}
@@ -2,6 +2,8 @@ package app.searchBar;
 
 
 import app.Admin;
+import app.audio.Collections.AudioCollection;
+import app.audio.Files.Song;
 import app.audio.LibraryEntry;
 import app.pages.TypePage;
 import app.user.User;
@@ -9,8 +11,7 @@ import lombok.Getter;
 
 import java.util.ArrayList;
 import java.util.List;
-
-import static app.searchBar.FilterUtils.*;
+import java.util.function.Predicate;
 
 /**
  * The type Search bar.
@@ -45,6 +46,20 @@ public final class SearchBar {
         lastSearchType = null;
     }
 
+    /**
+     * Puts back the state of a search bar restored from a snapshot.
+     *
+     * @param lastResults the results
+     * @param searchType  the last search type
+     * @param selected    the last selected entry
+     */
+    public void restore(final List<LibraryEntry> lastResults, final String searchType,
+                        final LibraryEntry selected) {
+        this.results = new ArrayList<>(lastResults);
+        this.lastSearchType = searchType;
+        this.lastSelected = selected;
+    }
+
     /**
      * Search list.
      *
@@ -54,120 +69,96 @@ public final class SearchBar {
      */
     public List<LibraryEntry> search(final Filters filters, final String type) {
         List<LibraryEntry> entries = new ArrayList<>();
+        Predicate<LibraryEntry> predicate = FilterUtils.compile(filters, type, user);
 
         switch (type) {
             case "song":
-                entries = new ArrayList<>(Admin.getSongs());
+                SearchIndex<Song> songs = Admin.getSongIndex();
+                SearchIndex.Query<Song> songQuery = songs.query().where(predicate);
 
                 if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
+                    songQuery.where(songs.byName(filters.getName()));
                 }
 
                 if (filters.getAlbum() != null) {
-                    entries = filterByAlbum(entries, filters.getAlbum());
+                    songQuery.where(songs.byTerm(SearchIndex.ALBUM, filters.getAlbum()));
                 }
 
                 if (filters.getTags() != null) {
-                    entries = filterByTags(entries, filters.getTags());
+                    for (String tag : filters.getTags()) {
+                        songQuery.where(songs.byTerm(SearchIndex.TAG, tag));
+                    }
                 }
 
                 if (filters.getLyrics() != null) {
-                    entries = filterByLyrics(entries, filters.getLyrics());
+                    songQuery.where(songs.byText(filters.getLyrics()));
                 }
 
                 if (filters.getGenre() != null) {
-                    entries = filterByGenre(entries, filters.getGenre());
+                    songQuery.where(songs.byTerm(SearchIndex.GENRE, filters.getGenre()));
                 }
 
-                if (filters.getReleaseYear() != null) {
-                    entries = filterByReleaseYear(entries, filters.getReleaseYear());
+                if (filters.getArtist() != null) {
+                    songQuery.where(songs.byTerm(SearchIndex.ARTIST, filters.getArtist()));
                 }
 
-                if (filters.getArtist() != null) {
-                    entries = filterByArtist(entries, filters.getArtist());
+                if (filters.getReleaseYear() != null) {
+                    songQuery.whereInRange(NumericRange.parse(filters.getReleaseYear()));
                 }
 
+                entries.addAll(songQuery.first(MAX_RESULTS));
                 break;
             case "playlist":
-                entries = new ArrayList<>(Admin.getPlaylists());
-
-                entries = filterByPlaylistVisibility(entries, user);
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getOwner() != null) {
-                    entries = filterByOwner(entries, filters.getOwner());
-                }
-
-                if (filters.getFollowers() != null) {
-                    entries = filterByFollowers(entries, filters.getFollowers());
-                }
-
+                entries.addAll(searchCollections(Admin.getPlaylistIndex(), filters, predicate));
                 break;
             case "podcast":
-                entries = new ArrayList<>(Admin.getPodcasts());
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getOwner() != null) {
-                    entries = filterByOwner(entries, filters.getOwner());
-                }
-
+                entries.addAll(searchCollections(Admin.getPodcastIndex(), filters, predicate));
                 break;
             case "album":
-                entries = new ArrayList<>(Admin.getAlbums());
-
-
-                if (filters.getName() != null) {
-                    entries = filterByName(entries, filters.getName());
-                }
-
-                if (filters.getOwner() != null) {
-                    entries = filterByOwner(entries, filters.getOwner());
-                }
-
-                if (filters.getDescription() != null) {
-                    entries = filterByAlbumDescription(entries, filters.getDescription());
-                }
+                entries.addAll(searchCollections(Admin.getAlbumIndex(), filters, predicate));
                 break;
             case "artist":
-                List<User> artists = Admin.getArtists();
-
-                if (filters.getName() != null) {
-                    artists = filterByUsername(artists, filters.getName());
-                }
-
-                if (artists != null) {
-                    entries.addAll(artists);
-                }
+                entries.addAll(searchUsers(Admin.getArtistIndex(), filters, predicate));
                 break;
             case "host":
-                List<User> hosts = Admin.getHosts();
-                if (filters.getName() != null) {
-                    hosts = filterByUsername(hosts, filters.getName());
-                }
-
-                if (hosts != null) {
-                    entries.addAll(hosts);
-                }
+                entries.addAll(searchUsers(Admin.getHostIndex(), filters, predicate));
                 break;
             default:
                 entries = new ArrayList<>();
         }
 
-        while (entries.size() > MAX_RESULTS) {
-            entries.remove(entries.size() - 1);
-        }
-
         this.results = entries;
         this.lastSearchType = type;
         return this.results;
     }
 
+    private static <T extends AudioCollection> List<T> searchCollections(
+            final SearchIndex<T> collections, final Filters filters,
+            final Predicate<LibraryEntry> predicate) {
+        SearchIndex.Query<T> query = collections.query().where(predicate);
+
+        if (filters.getName() != null) {
+            query.where(collections.byName(filters.getName()));
+        }
+
+        if (filters.getOwner() != null) {
+            query.where(collections.byTerm(SearchIndex.OWNER, filters.getOwner()));
+        }
+
+        return query.first(MAX_RESULTS);
+    }
+
+    private static List<User> searchUsers(final SearchIndex<User> users, final Filters filters,
+                                          final Predicate<LibraryEntry> predicate) {
+        SearchIndex.Query<User> query = users.query().where(predicate);
+
+        if (filters.getName() != null) {
+            query.where(users.byName(filters.getName()));
+        }
+
+        return query.first(MAX_RESULTS);
+    }
+
     /**
      * Select library entry.
      *
@@ -0,0 +1,780 @@
+package app.searchBar;
+
+import app.audio.Collections.Album;
+import app.audio.Collections.AudioCollection;
+import app.audio.Collections.Playlist;
+import app.audio.Collections.Podcast;
+import app.audio.Files.Song;
+import app.audio.LibraryEntry;
+import app.user.User;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory search index over one kind of library entry.
+ *
+ * Entries are kept in catalog order through an order key supplied by the caller. Names are
+ * indexed in a compressed prefix trie whose nodes count the entries below them and list only
+ * those whose name ends there; a prefix is read lazily off its subtree. Exact-match fields
+ * are indexed in term posting lists, free text in trigram posting lists, and one numeric field
+ * in per-value buckets sorted by value so range filters become range lookups. Posting lists
+ * only narrow the candidates, every hit is still checked against the entry's own matches*
+ * predicates, so results are identical to a full scan.
+ *
+ * @param <T> the entry type
+ */
+public final class SearchIndex<T extends LibraryEntry> {
+    public static final String ALBUM = "album";
+    public static final String ARTIST = "artist";
+    public static final String GENRE = "genre";
+    public static final String OWNER = "owner";
+    public static final String TAG = "tag";
+    private static final int GRAM = 3;
+    private static final int DENSE = 64;
+
+    private final Function<T, Collection<String>> termsOf;
+    private final Function<T, String> textOf;
+    private final Function<T, Integer> numberOf;
+    private final TreeMap<Long, T> byOrder = new TreeMap<>();
+    private final Map<T, Long> orderOf = new HashMap<>();
+    private final TrieNode names = new TrieNode("");
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+    private final TreeMap<Integer, NavigableSet<Long>> byNumber = new TreeMap<>();
+
+    private SearchIndex(final Function<T, Collection<String>> termsOf,
+                        final Function<T, String> textOf,
+                        final Function<T, Integer> numberOf) {
+        this.termsOf = termsOf;
+        this.textOf = textOf;
+        this.numberOf = numberOf;
+    }
+
+    /**
+     * Song index: name, album, artist, genre, tags, lyrics and release year.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Song> forSongs() {
+        return new SearchIndex<>(song -> {
+            List<String> terms = new ArrayList<>();
+            addTerm(terms, ALBUM, song.getAlbum());
+            addTerm(terms, ARTIST, song.getArtist());
+            addTerm(terms, GENRE, song.getGenre());
+            for (String tag : song.getFoldedTags()) {
+                addTerm(terms, TAG, tag);
+            }
+            return terms;
+        }, Song::getLyrics, Song::getReleaseYear);
+    }
+
+    /**
+     * Playlist index: name and owner.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Playlist> forPlaylists() {
+        return new SearchIndex<>(SearchIndex::ownerTerms, playlist -> null, playlist -> null);
+    }
+
+    /**
+     * Podcast index: name and owner.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Podcast> forPodcasts() {
+        return new SearchIndex<>(SearchIndex::ownerTerms, podcast -> null, podcast -> null);
+    }
+
+    /**
+     * Album index: name and owner.
+     *
+     * @return the index
+     */
+    public static SearchIndex<Album> forAlbums() {
+        return new SearchIndex<>(SearchIndex::ownerTerms, album -> null, album -> null);
+    }
+
+    /**
+     * Artist or host index: username.
+     *
+     * @return the index
+     */
+    public static SearchIndex<User> forUsers() {
+        return new SearchIndex<>(user -> List.of(), user -> null, user -> null);
+    }
+
+    private static Collection<String> ownerTerms(final AudioCollection collection) {
+        List<String> terms = new ArrayList<>();
+        addTerm(terms, OWNER, collection.getOwner());
+        return terms;
+    }
+
+    private static void addTerm(final List<String> terms, final String field, final String value) {
+        if (value != null) {
+            terms.add(term(field, value));
+        }
+    }
+
+    private static String term(final String field, final String value) {
+        return field + ':' + value.toLowerCase();
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param entry the entry
+     * @param order the catalog order key
+     */
+    public void add(final T entry, final long order) {
+        if (orderOf.containsKey(entry)) {
+            return;
+        }
+        orderOf.put(entry, order);
+        byOrder.put(order, entry);
+
+        names.insert(entry.getFoldedName()).ends().add(order);
+        for (String key : keysOf(entry)) {
+            postings.computeIfAbsent(key, k -> new TreeSet<>()).add(order);
+        }
+        Integer number = numberOf.apply(entry);
+        if (number != null) {
+            byNumber.computeIfAbsent(number, k -> new TreeSet<>()).add(order);
+        }
+    }
+
+    /**
+     * Adds entries with consecutive order keys, all after those of the entries already indexed.
+     * Every posting list an entry goes into is collected first and then filled in one go, which
+     * for an empty list takes linear time instead of a tree insertion per entry.
+     *
+     * @param entries    the entries
+     * @param firstOrder the order key of the first entry
+     */
+    public void addAll(final List<? extends T> entries, final long firstOrder) {
+        Map<NavigableSet<Long>, List<Long>> appended = new IdentityHashMap<>();
+        long order = firstOrder;
+        for (T entry : entries) {
+            long key = order++;
+            if (orderOf.containsKey(entry)) {
+                continue;
+            }
+            orderOf.put(entry, key);
+            byOrder.put(key, entry);
+
+            append(appended, names.insert(entry.getFoldedName()).ends(), key);
+            for (String term : keysOf(entry)) {
+                append(appended, postings.computeIfAbsent(term, k -> new TreeSet<>()), key);
+            }
+            Integer number = numberOf.apply(entry);
+            if (number != null) {
+                append(appended, byNumber.computeIfAbsent(number, k -> new TreeSet<>()), key);
+            }
+        }
+        appended.forEach((posting, keys) -> posting.addAll(new Run(keys)));
+    }
+
+    private static void append(final Map<NavigableSet<Long>, List<Long>> appended,
+                               final NavigableSet<Long> posting, final long order) {
+        appended.computeIfAbsent(posting, k -> new ArrayList<>()).add(order);
+    }
+
+    /**
+     * Gets the order key of an entry.
+     *
+     * @param entry the entry
+     * @return the order key, or null if the entry is not indexed
+     */
+    public Long orderOf(final T entry) {
+        return orderOf.get(entry);
+    }
+
+    /**
+     * Removes an entry, if present.
+     *
+     * @param entry the entry
+     */
+    public void remove(final T entry) {
+        Long order = orderOf.remove(entry);
+        if (order == null) {
+            return;
+        }
+        byOrder.remove(order);
+
+        names.remove(entry.getFoldedName(), order);
+        for (String key : keysOf(entry)) {
+            NavigableSet<Long> posting = postings.get(key);
+            posting.remove(order);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+        Integer number = numberOf.apply(entry);
+        if (number != null) {
+            NavigableSet<Long> bucket = byNumber.get(number);
+            bucket.remove(order);
+            if (bucket.isEmpty()) {
+                byNumber.remove(number);
+            }
+        }
+    }
+
+    private Set<String> keysOf(final T entry) {
+        Set<String> keys = new HashSet<>(termsOf.apply(entry));
+        String text = textOf.apply(entry);
+        if (text != null) {
+            String folded = text.toLowerCase();
+            for (int i = 0; i + GRAM <= folded.length(); i++) {
+                keys.add("text:" + folded.substring(i, i + GRAM));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Entries whose name starts with the prefix, ignoring case. The order keys are not copied:
+     * they are walked in ascending order as the query asks for them.
+     *
+     * @param prefix the prefix
+     * @return the posting list
+     */
+    public Collection<Long> byName(final String prefix) {
+        String folded = prefix.toLowerCase();
+        TrieNode node = names.find(folded);
+        if (node == null) {
+            return Collections.emptyNavigableSet();
+        }
+        return new NameRange(node, folded);
+    }
+
+    /**
+     * Entries carrying the given field value, ignoring case.
+     *
+     * @param field the field
+     * @param value the value
+     * @return the posting list
+     */
+    public NavigableSet<Long> byTerm(final String field, final String value) {
+        return postings.getOrDefault(term(field, value), Collections.emptyNavigableSet());
+    }
+
+    /**
+     * Candidates whose text may contain the fragment, ignoring case. Fragments shorter than a
+     * trigram cannot be narrowed and return every entry.
+     *
+     * @param fragment the fragment
+     * @return the posting list
+     */
+    public NavigableSet<Long> byText(final String fragment) {
+        String folded = fragment.toLowerCase();
+        NavigableSet<Long> smallest = byOrder.navigableKeySet();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            NavigableSet<Long> posting = postings.getOrDefault(
+                    "text:" + folded.substring(i, i + GRAM), Collections.emptyNavigableSet());
+            if (posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Starts a query over this index.
+     *
+     * @return the query
+     */
+    public Query<T> query() {
+        return new Query<>(this);
+    }
+
+    private Collection<Long> inRange(final NumericRange range) {
+        if (range.isEmpty()) {
+            return Collections.emptyNavigableSet();
+        }
+        return new NumberRange(range, new ArrayList<>(
+                byNumber.subMap(range.lowerBound(), true, range.upperBound(), true).values()));
+    }
+
+    /**
+     * Ascending order keys seen as a sorted set. An empty TreeSet takes all of a sorted set with
+     * the same ordering at once instead of inserting them one by one; any other posting list
+     * still takes them, one at a time.
+     */
+    private static final class Run extends AbstractSet<Long> implements SortedSet<Long> {
+        private final List<Long> keys;
+
+        private Run(final List<Long> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return keys.iterator();
+        }
+
+        @Override
+        public int size() {
+            return keys.size();
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return null;
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return key instanceof Long && Collections.binarySearch(keys, (Long) key) >= 0;
+        }
+
+        @Override
+        public Long first() {
+            if (keys.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return keys.get(0);
+        }
+
+        @Override
+        public Long last() {
+            if (keys.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return keys.get(keys.size() - 1);
+        }
+
+        @Override
+        public SortedSet<Long> subSet(final Long fromElement, final Long toElement) {
+            if (fromElement > toElement) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            return new Run(keys.subList(indexOf(fromElement), indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Long> headSet(final Long toElement) {
+            return new Run(keys.subList(0, indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Long> tailSet(final Long fromElement) {
+            return new Run(keys.subList(indexOf(fromElement), keys.size()));
+        }
+
+        /**
+         * Position of the first key not below the given one.
+         */
+        private int indexOf(final Long key) {
+            int found = Collections.binarySearch(keys, key);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    /**
+     * A node of the name trie. The edge into a node carries a whole run of characters, so
+     * there are at most about two nodes per distinct name.
+     */
+    private static final class TrieNode {
+        private String label;
+        private Map<Character, TrieNode> children;
+        private NavigableSet<Long> postings;
+        private int size;
+
+        private TrieNode(final String label) {
+            this.label = label;
+        }
+
+        private NavigableSet<Long> ends() {
+            if (postings == null) {
+                postings = new TreeSet<>();
+            }
+            return postings;
+        }
+
+        private TrieNode child(final char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        private void put(final TrieNode child) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            children.put(child.label.charAt(0), child);
+        }
+
+        /**
+         * Counts one more name below this node, splitting edges as needed.
+         *
+         * @param name the name
+         * @return the node the name ends at
+         */
+        private TrieNode insert(final String name) {
+            TrieNode node = this;
+            node.size++;
+            int i = 0;
+            while (i < name.length()) {
+                TrieNode child = node.child(name.charAt(i));
+                if (child == null) {
+                    child = new TrieNode(name.substring(i));
+                    node.put(child);
+                    child.size++;
+                    return child;
+                }
+                int common = common(child.label, name, i);
+                if (common < child.label.length()) {
+                    TrieNode middle = new TrieNode(child.label.substring(0, common));
+                    middle.size = child.size;
+                    child.label = child.label.substring(common);
+                    middle.put(child);
+                    node.put(middle);
+                    child = middle;
+                }
+                child.size++;
+                node = child;
+                i += common;
+            }
+            return node;
+        }
+
+        /**
+         * Uncounts a name, dropping the nodes no name goes through any more.
+         *
+         * @param name  the name
+         * @param order the order key of its entry
+         */
+        private void remove(final String name, final long order) {
+            TrieNode node = this;
+            node.size--;
+            int i = 0;
+            while (i < name.length()) {
+                TrieNode child = node.child(name.charAt(i));
+                i += child.label.length();
+                if (--child.size == 0) {
+                    node.children.remove(child.label.charAt(0));
+                    return;
+                }
+                node = child;
+            }
+            node.postings.remove(order);
+            if (node.postings.isEmpty()) {
+                node.postings = null;
+            }
+        }
+
+        /**
+         * The node all names starting with a prefix are under.
+         *
+         * @param prefix the prefix
+         * @return the node, or null if no name starts with the prefix
+         */
+        private TrieNode find(final String prefix) {
+            TrieNode node = this;
+            int i = 0;
+            while (i < prefix.length()) {
+                TrieNode child = node.child(prefix.charAt(i));
+                if (child == null) {
+                    return null;
+                }
+                int common = common(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    return child;
+                }
+                if (common < child.label.length()) {
+                    return null;
+                }
+                node = child;
+                i += common;
+            }
+            return node;
+        }
+
+        private static int common(final String label, final String name, final int from) {
+            int length = Math.min(label.length(), name.length() - from);
+            int i = 0;
+            while (i < length && label.charAt(i) == name.charAt(from + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * The entries under a trie node. When they are a large share of the index it is cheaper to
+     * walk the catalog and skip the other names; otherwise the lists of the names ending below
+     * the node are merged.
+     */
+    private final class NameRange extends AbstractCollection<Long> {
+        private final TrieNode node;
+        private final String prefix;
+
+        private NameRange(final TrieNode node, final String prefix) {
+            this.node = node;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int size() {
+            return node.size;
+        }
+
+        @Override
+        public boolean contains(final Object order) {
+            T entry = byOrder.get(order);
+            return entry != null && entry.getFoldedName().startsWith(prefix);
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            if ((long) node.size * DENSE >= byOrder.size()) {
+                return new Scan(prefix);
+            }
+            List<NavigableSet<Long>> ends = new ArrayList<>();
+            List<TrieNode> pending = new ArrayList<>();
+            pending.add(node);
+            while (!pending.isEmpty()) {
+                TrieNode next = pending.remove(pending.size() - 1);
+                if (next.postings != null) {
+                    ends.add(next.postings);
+                }
+                if (next.children != null) {
+                    pending.addAll(next.children.values());
+                }
+            }
+            return new Merge(ends);
+        }
+    }
+
+    /**
+     * Order keys of the entries whose number falls in a range, merged from the buckets of the
+     * range as the query walks them, so a query stops copying once it has its results.
+     */
+    private final class NumberRange extends AbstractCollection<Long> {
+        private final NumericRange range;
+        private final List<NavigableSet<Long>> buckets;
+        private int size = -1;
+
+        private NumberRange(final NumericRange range, final List<NavigableSet<Long>> buckets) {
+            this.range = range;
+            this.buckets = buckets;
+        }
+
+        @Override
+        public int size() {
+            if (size < 0) {
+                int count = 0;
+                for (NavigableSet<Long> bucket : buckets) {
+                    count += bucket.size();
+                }
+                size = count;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object order) {
+            T entry = byOrder.get(order);
+            Integer number = entry == null ? null : numberOf.apply(entry);
+            return number != null && range.contains(number);
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return new Merge(buckets);
+        }
+    }
+
+    /**
+     * Order keys of the catalog whose entry's name starts with a prefix.
+     */
+    private final class Scan implements Iterator<Long> {
+        private final Iterator<Map.Entry<Long, T>> entries = byOrder.entrySet().iterator();
+        private final String prefix;
+        private Long next;
+
+        private Scan(final String prefix) {
+            this.prefix = prefix;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && entries.hasNext()) {
+                Map.Entry<Long, T> entry = entries.next();
+                if (entry.getValue().getFoldedName().startsWith(prefix)) {
+                    next = entry.getKey();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Long next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Long order = next;
+            advance();
+            return order;
+        }
+    }
+
+    /**
+     * Merges ascending lists of order keys into one ascending sequence.
+     */
+    private static final class Merge implements Iterator<Long> {
+        private final PriorityQueue<Head> heads = new PriorityQueue<>();
+
+        private Merge(final List<NavigableSet<Long>> lists) {
+            for (NavigableSet<Long> list : lists) {
+                Iterator<Long> rest = list.iterator();
+                heads.add(new Head(rest.next(), rest));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Long next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            long order = head.order;
+            if (head.rest.hasNext()) {
+                head.order = head.rest.next();
+                heads.add(head);
+            }
+            return order;
+        }
+    }
+
+    private static final class Head implements Comparable<Head> {
+        private long order;
+        private final Iterator<Long> rest;
+
+        private Head(final long order, final Iterator<Long> rest) {
+            this.order = order;
+            this.rest = rest;
+        }
+
+        @Override
+        public int compareTo(final Head other) {
+            return Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * A conjunction of posting lists and predicates, evaluated in catalog order.
+     *
+     * @param <T> the entry type
+     */
+    public static final class Query<T extends LibraryEntry> {
+        private final SearchIndex<T> index;
+        private final List<Collection<Long>> candidates = new ArrayList<>();
+        private Predicate<? super T> predicate = entry -> true;
+
+        private Query(final SearchIndex<T> index) {
+            this.index = index;
+        }
+
+        /**
+         * Restricts the query to the given candidates.
+         *
+         * @param posting the posting list, iterated in ascending order
+         * @return the query
+         */
+        public Query<T> where(final Collection<Long> posting) {
+            candidates.add(posting);
+            return this;
+        }
+
+        /**
+         * Narrows the candidates to entries whose indexed number is in the range. The buckets of
+         * the range are only walked, merged, when they hold fewer entries than the other
+         * candidates; otherwise each candidate's number is checked against the range.
+         *
+         * @param numbers the range
+         * @return the query
+         */
+        public Query<T> whereInRange(final NumericRange numbers) {
+            candidates.add(index.inRange(numbers));
+            return this;
+        }
+
+        /**
+         * Restricts the query to entries matching the predicate.
+         *
+         * @param filter the predicate
+         * @return the query
+         */
+        public Query<T> where(final Predicate<? super T> filter) {
+            Predicate<? super T> previous = predicate;
+            predicate = entry -> previous.test(entry) && filter.test(entry);
+            return this;
+        }
+
+        /**
+         * Returns the first matching entries in catalog order.
+         *
+         * @param limit the maximum number of results
+         * @return the entries
+         */
+        public List<T> first(final int limit) {
+            Collection<Long> driver = index.byOrder.navigableKeySet();
+            for (Collection<Long> posting : candidates) {
+                if (posting.size() < driver.size()) {
+                    driver = posting;
+                }
+            }
+
+            List<T> results = new ArrayList<>();
+            for (Long order : driver) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                if (containedInAll(order)) {
+                    T entry = index.byOrder.get(order);
+                    if (predicate.test(entry)) {
+                        results.add(entry);
+                    }
+                }
+            }
+            return results;
+        }
+
+        private boolean containedInAll(final Long order) {
+            for (Collection<Long> posting : candidates) {
+                if (!posting.contains(order)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -20,8 +20,11 @@ import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The type User.
@@ -36,11 +39,13 @@ public final class User extends LibraryEntry {
     @Getter
     private ArrayList<Playlist> playlists;
     @Getter
-    private ArrayList<Song> likedSongs;
+    private LinkedHashSet<Song> likedSongs;
     @Getter
-    private ArrayList<Playlist> followedPlaylists;
+    private LinkedHashSet<Playlist> followedPlaylists;
     private Player player;
+    @Getter
     private final SearchBar searchBar;
+    @Getter
     private boolean lastSearched;
 
     @Getter
@@ -63,8 +68,9 @@ public final class User extends LibraryEntry {
     private ArrayList<Merch> merches;
     @Getter
     private ArrayList<Announcement> announcements;
-    @Setter
     private int artistsLikes;
+    @Getter
+    private int syncedTimestamp;
     private static final int LIMIT = 5;
 
     /**
@@ -83,8 +89,8 @@ public final class User extends LibraryEntry {
         this.merches = new ArrayList<>();
         this.announcements = new ArrayList<>();
         playlists = new ArrayList<>();
-        likedSongs = new ArrayList<>();
-        followedPlaylists = new ArrayList<>();
+        likedSongs = new LinkedHashSet<>();
+        followedPlaylists = new LinkedHashSet<>();
         player = new Player();
         searchBar = new SearchBar(username);
         lastSearched = false;
@@ -104,7 +110,9 @@ public final class User extends LibraryEntry {
     }
 
     public void setPage(final Page page) {
+        Page oldPage = this.page;
         this.page = page;
+        Admin.pageMoved(this, oldPage, page);
     }
 
     public Page getPage() {
@@ -330,8 +338,7 @@ public final class User extends LibraryEntry {
 
         Song song = (Song) player.getCurrentAudioFile();
 
-        if (likedSongs.contains(song)) {
-            likedSongs.remove(song);
+        if (likedSongs.remove(song)) {
             song.dislike();
 
             return "Unlike registered successfully.";
@@ -389,7 +396,9 @@ public final class User extends LibraryEntry {
         if (playlists.stream().anyMatch(playlist -> playlist.getName().equals(name))) {
             return "A playlist with the same name already exists.";
         }
-        playlists.add(new Playlist(name, username, timestamp));
+        Playlist playlist = new Playlist(name, username, timestamp);
+        playlists.add(playlist);
+        Admin.addPlaylist(this, playlist);
 
         return "Playlist created successfully.";
     }
@@ -414,6 +423,7 @@ public final class User extends LibraryEntry {
         }
 
         Playlist playlist = playlists.get(id - 1);
+        Admin.syncPlayers();
 
         if (playlist.containsSong((Song) player.getCurrentAudioFile())) {
             playlist.removeSong((Song) player.getCurrentAudioFile());
@@ -453,7 +463,6 @@ public final class User extends LibraryEntry {
     public ArrayList<PlaylistOutput> showPlaylists() {
         ArrayList<PlaylistOutput> playlistOutputs = new ArrayList<>();
         for (Playlist playlist : playlists) {
-            playlist.setFollowers(getTotalFollowers(playlist.getName()));
             playlistOutputs.add(new PlaylistOutput(playlist));
         }
 
@@ -483,15 +492,14 @@ public final class User extends LibraryEntry {
             return "You cannot follow or unfollow your own playlist.";
         }
 
-        if (followedPlaylists.contains(playlist)) {
-            followedPlaylists.remove(playlist);
-            playlist.decreaseFollowers();
+        if (followedPlaylists.remove(playlist)) {
+            Admin.changeFollowers(playlist, playlist::decreaseFollowers);
 
             return "Playlist unfollowed successfully.";
         }
 
         followedPlaylists.add(playlist);
-        playlist.increaseFollowers();
+        Admin.changeFollowers(playlist, playlist::increaseFollowers);
         return "Playlist followed successfully.";
     }
 
@@ -577,6 +585,31 @@ public final class User extends LibraryEntry {
         player.simulatePlayer(time);
     }
 
+    /**
+     * Advances the player from the last synced timestamp to now. Time only passes for the
+     * player while the user is online, so the online status must not change between syncs.
+     *
+     * @param now the current timestamp
+     */
+    public void syncTime(final int now) {
+        int elapsed = now - syncedTimestamp;
+        syncedTimestamp = now;
+        if (elapsed != 0 && isOnline()) {
+            simulateTime(elapsed);
+        }
+    }
+
+
+    /**
+     * Puts back the search and clock state of a user restored from a snapshot.
+     *
+     * @param searched whether a search waits for a selection
+     * @param synced   the timestamp the player was last synced to
+     */
+    public void restoreSession(final boolean searched, final int synced) {
+        this.lastSearched = searched;
+        this.syncedTimestamp = synced;
+    }
 
     /**
      * Switch connection
@@ -603,6 +636,7 @@ public final class User extends LibraryEntry {
      */
     public void addAlbum(final Album album) {
         albums.add(album);
+        Admin.addAlbum(this, album);
     }
 
     /**
@@ -652,6 +686,7 @@ public final class User extends LibraryEntry {
         for (Podcast podcast: podcasts) {
             if (podcast.getOwner().equals(getUsername())
                     && podcast.getName().equals(podcastName)) {
+                Admin.syncPlayers();
                 for (User user : Admin.getUsers()) {
                     if (user.isPlaying()) {
                         return getUsername() + " can't delete this podcast.";
@@ -677,16 +712,19 @@ public final class User extends LibraryEntry {
 
         for (Album album : albums) {
             if (album.getOwner().equals(getUsername()) && album.getName().equals(albumName)) {
+                Admin.syncPlayers();
                 for (User user : Admin.getUsers()) {
                     if (user.isPlaying()) {
                         return getUsername() + " can't delete this album.";
                     }
                 }
+                Set<Song> albumSongs = new HashSet<>(album.getSongs());
                 for (User user : Admin.getUsers()) {
-                    user.deleteSong(album.getSongs());
+                    user.deleteSongs(albumSongs);
                 }
                 albums.remove(album);
-                Admin.removeSong(album.getSongs());
+                Admin.removeAlbum(this, album);
+                Admin.removeSongs(albumSongs);
                 return getUsername() + " deleted the album successfully.";
             }
         }
@@ -694,34 +732,27 @@ public final class User extends LibraryEntry {
     }
 
     /**
-     * Remove the playlist.
+     * Unfollow deleted playlists.
      *
-     * @param playlistName the playlist name
+     * @param deleted the deleted playlists
      */
-    public void removePlaylist(final String playlistName) {
-        int poz = 0;
-        for (Playlist playlist : followedPlaylists) {
-            if (playlist.getName().equals(playlistName)) {
-                break;
+    public void removePlaylists(final Set<Playlist> deleted) {
+        followedPlaylists.removeIf(playlist -> {
+            if (!deleted.contains(playlist)) {
+                return false;
             }
-            poz++;
-        }
-        if (poz < followedPlaylists.size()) {
-            followedPlaylists.remove(poz);
-        }
+            Admin.changeFollowers(playlist, playlist::decreaseFollowers);
+            return true;
+        });
     }
 
     /**
-     * Delete song.
+     * Delete songs.
      *
-     * @param albumSongs the song from album
+     * @param songs the deleted songs
      */
-    public void deleteSong(final ArrayList<Song> albumSongs) {
-        for (Song song : albumSongs) {
-            if (likedSongs.contains(song)) {
-                likedSongs.remove(song);
-            }
-        }
+    public void deleteSongs(final Set<Song> songs) {
+        likedSongs.removeIf(songs::contains);
     }
 
 
@@ -738,23 +769,6 @@ public final class User extends LibraryEntry {
         }
     }
 
-    /**
-     * Get total followers.
-     *
-     * @param playlistName the playlist name
-     * @return the int
-     */
-    public int getTotalFollowers(final String playlistName) {
-        int total = 0;
-        for (User user : Admin.getUsers()) {
-            for (Playlist playlist : user.getFollowedPlaylists()) {
-                if (playlistName.equals(playlist.getName())) {
-                    total++;
-                }
-            }
-        }
-        return total;
-    }
 
 
     /**
@@ -828,6 +842,7 @@ public final class User extends LibraryEntry {
                         + commandInput.getNextPage() + " successfully.";
             } else if ("LikedContent".equals(commandInput.getNextPage())) {
                 currentPage.setPageType("LikedContentPage");
+                Admin.pageChanged(page);
                 return getUsername() + " accessed "
                         + commandInput.getNextPage() + " successfully.";
             } else if (!"HostPage".equals(this.page.getCurrentPage().getPageType())
@@ -1038,35 +1053,6 @@ public final class User extends LibraryEntry {
         return podcastOutputs;
     }
 
-    /**
-     * Check if a user is normal.
-     *
-     * @param userToDelete the user to delete
-     * @return the boolean
-     */
-    public boolean checkNormal(final User userToDelete) {
-        List<User> users = Admin.getUsers();
-        List<Playlist> playlists = Admin.getPlaylists();
-
-        for (User user : users) {
-            if (user.getPlayer().getCurrentAudioFile() != null) {
-                if (user.getPlayer().equals("playlist")) {
-                    for (Playlist playlist : playlists) {
-                        ArrayList<Song> songsCurrent = playlist.getSongs();
-                        for (Song song : songsCurrent) {
-                            if (song.getName().equals(user.getPlayer()
-                                    .getCurrentAudioFile().getName())
-                                    && playlist.getOwner().equals(userToDelete.getUsername())) {
-                                    return false;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
     /**
      * Check if a user is artist.
      *
@@ -1074,23 +1060,11 @@ public final class User extends LibraryEntry {
      * @return the list
      */
     public boolean checkArtist(final User userToDelete) {
-        List<User> users = Admin.getUsers();
-
-        for (User user : users)  {
-            if (user.getPlayer().getCurrentAudioFile() != null) {
-                if (user.getPlayer().getType().equals("song")
-                        || user.getPlayer().getType().equals("album")) {
-                    for (Album album : userToDelete.getAlbums()) {
-                        ArrayList<Song> songsCurrent = album.getSongs();
-                        for (Song song : songsCurrent) {
-                            if (song.getName().equals(user.getPlayer()
-                                    .getCurrentAudioFile().getName())
-                                    || album.getName().equals(user.getPlayer()
-                                    .getCurrentAudioFile().getName())) {
-                                return false;
-                            }
-                        }
-                    }
+        for (Album album : userToDelete.getAlbums()) {
+            for (Song song : album.getSongs()) {
+                if (Admin.isPlayingTrack(song.getName())
+                        || Admin.isPlayingTrack(album.getName())) {
+                    return false;
                 }
             }
         }
@@ -1098,31 +1072,14 @@ public final class User extends LibraryEntry {
     }
 
     /**
-     * Check if the playlist is listening.
+     * Check if the playlist is listening: no playlist player may be on a song that a playlist
+     * of the run lists.
      *
      * @param userToDelete the user to delete
      * @return the boolean
      */
     public boolean checkPlaylist(final User userToDelete) {
-        for (User user : Admin.getUsers()) {
-            Player player = user.getPlayer();
-
-            if (player != null && "playlist".equals(player.getType())
-                    && player.getCurrentAudioFile() != null) {
-                for (Playlist playlist : Admin.getPlaylists()) {
-                    if (playlist.containsSong((Song) player.getCurrentAudioFile())) {
-                        return false;
-                    }
-
-                    for (Song song : userToDelete.getSongs()) {
-                        if (playlist.containsSong(song)) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
+        return !Admin.isPlayingListedSong();
     }
 
     /**
@@ -1132,20 +1089,10 @@ public final class User extends LibraryEntry {
      * @return the boolean
      */
     public boolean checkHost(final User userToDelete) {
-        List<User> users = Admin.getUsers();
-
-        for (User user : users)  {
-            if (user.getPlayer().getCurrentAudioFile() != null) {
-                if (user.getPlayer().getType().equals("podcast")) {
-                    for (Podcast podcast : userToDelete.getPodcasts()) {
-                        List<Episode> episodeCurrent = podcast.getEpisodes();
-                        for (Episode episode : episodeCurrent) {
-                            if (episode.getName().equals(user.getPlayer()
-                                    .getCurrentAudioFile().getName())) {
-                                return false;
-                            }
-                        }
-                    }
+        for (Podcast podcast : userToDelete.getPodcasts()) {
+            for (Episode episode : podcast.getEpisodes()) {
+                if (Admin.isPlayingEpisode(episode.getName())) {
+                    return false;
                 }
             }
         }
@@ -1159,26 +1106,7 @@ public final class User extends LibraryEntry {
      * @return the boolean
      */
     public boolean checkPage(final User userToDelete) {
-        List<User> users = Admin.getUsers();
-
-        for (User user : users)  {
-            if (user.getPage().getCurrentPage() != null) {
-                if (user.getPage().getCurrentPage().getPageType().equals("ArtistPage")
-                        || user.getPage().getCurrentPage().getPageType().equals("HostPage")) {
-                    if (user.getPage().getArtistName() != null) {
-                        if (user.getPage().getArtistName().equals(userToDelete.getName())) {
-                            return false;
-                        }
-                    }
-                    if (user.getPage().getHostName() != null) {
-                        if (user.getPage().getHostName().equals(userToDelete.getName())) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
+        return !Admin.isPageViewed(userToDelete.getName());
     }
 
     /**
@@ -1223,15 +1151,20 @@ public final class User extends LibraryEntry {
     }
 
     /**
-     * Get artist likes.
+     * Get artist likes, the likes of the songs in all the albums of the artist.
      *
      * @return the total likes
      */
     public int getArtistLikes() {
-        int totalLikes = 0;
-        for (Album album : getAlbums()) {
-            totalLikes += album.getTotalLikes();
-        }
-        return totalLikes;
+        return artistsLikes;
+    }
+
+    /**
+     * Add artist likes.
+     *
+     * @param delta the change in likes
+     */
+    public void addArtistLikes(final int delta) {
+        artistsLikes += delta;
     }
 }
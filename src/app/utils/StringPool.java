@@ -0,0 +1,31 @@
+package app.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One instance of every value of the strings that repeat across many inputs, such as the album,
+ * artist, genre and tags of songs, so that each distinct value is kept once however many inputs
+ * carry it and equal values are the same instance. The pool only grows, so it is meant for
+ * fields with few distinct values.
+ */
+public final class StringPool {
+    private static final Map<String, String> VALUES = new ConcurrentHashMap<>();
+
+    private StringPool() {
+    }
+
+    /**
+     * The instance of a value kept by the pool, added if it is new.
+     *
+     * @param value the value
+     * @return the kept instance, or null
+     */
+    public static String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        String kept = VALUES.putIfAbsent(value, value);
+        return kept == null ? value : kept;
+    }
+}
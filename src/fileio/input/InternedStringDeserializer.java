@@ -0,0 +1,30 @@
+package fileio.input;
+
+import app.utils.StringPool;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads strings that repeat across many inputs, such as the album, artist, genre and tags of
+ * songs, as the instances {@link StringPool} keeps.
+ */
+public final class InternedStringDeserializer extends StdScalarDeserializer<String> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Instantiates the deserializer, as named by the annotations of the input fields.
+     */
+    public InternedStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(final JsonParser parser, final DeserializationContext context)
+            throws IOException {
+        return StringPool.intern(StringDeserializer.instance.deserialize(parser, context));
+    }
+}
@@ -1,15 +1,21 @@
 package fileio.input;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.util.ArrayList;
 
 public final class SongInput {
     private String name;
     private Integer duration;
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String album;
+    @JsonDeserialize(contentUsing = InternedStringDeserializer.class)
     private ArrayList<String> tags;
     private String lyrics;
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String genre;
     private Integer releaseYear;
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String artist;
 
     public SongInput() {
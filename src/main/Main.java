@@ -1,12 +1,20 @@
 package main;
 
 import app.Admin;
-import app.CommandRunner;
+import app.Snapshot;
+import app.commands.CommandLog;
+import app.commands.CommandProfile;
+import app.commands.CommandRegistry;
+import app.commands.UserActors;
 import checker.Checker;
 import checker.CheckerConstants;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import fileio.input.CommandInput;
 import fileio.input.LibraryInput;
 
@@ -21,6 +29,35 @@ import java.util.Objects;
  * The entry point to this homework. It runs the checker that tests your implentation.
  */
 public final class Main {
+    /**
+     * System property that, set to true, makes {@link #action(String, String)} replay with
+     * {@link UserActors}.
+     */
+    public static final String CONCURRENT = "replay.concurrent";
+    /**
+     * System property that, set to true, makes {@link #action(String, String)} keep a
+     * {@link CommandLog} of the run next to its output, from which {@link #recover(String)}
+     * rebuilds its state.
+     */
+    public static final String LOG = "replay.log";
+    /**
+     * System property with how many records the command log syncs at once at most.
+     */
+    public static final String LOG_RECORDS = "replay.log.records";
+    /**
+     * System property with how many milliseconds a record waits to be synced at most.
+     */
+    public static final String LOG_MILLIS = "replay.log.millis";
+    /**
+     * System property that, set to true, makes {@link #action(String, String)} write a
+     * {@link Snapshot} of the state a run ends in next to its output.
+     */
+    public static final String SNAPSHOT = "replay.snapshot";
+    private static final int DEFAULT_LOG_RECORDS = 256;
+    private static final long DEFAULT_LOG_MILLIS = 50;
+
+    private static LibraryInput library;
+
     /**
      * for coding style
      */
@@ -63,80 +100,137 @@ public final class Main {
     }
 
     /**
+     * Runs the commands in the input file one at a time, writing each output as soon as it is
+     * produced, so neither the commands nor the outputs are ever held in memory as a whole.
+     * The library file is only parsed by the first run. A profile of what each command cost is
+     * written next to the output. The replay is concurrent if the {@link #CONCURRENT} system
+     * property is set to true, logged if the {@link #LOG} one is and snapshotted at the end if
+     * the {@link #SNAPSHOT} one is.
+     *
      * @param filePath1 for input file
      * @param filePath2 for output file
      * @throws IOException in case of exceptions to reading / writing
      */
     public static void action(final String filePath1,
                               final String filePath2) throws IOException {
+        action(filePath1, filePath2, Boolean.getBoolean(CONCURRENT));
+    }
+
+    /**
+     * Runs the commands in the input file, either one at a time or with the commands of
+     * different users issued at the same timestamp running concurrently (see
+     * {@link UserActors}). Both write the same outputs.
+     *
+     * @param filePath1  for input file
+     * @param filePath2  for output file
+     * @param concurrent whether to replay concurrently
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final String filePath1, final String filePath2,
+                              final boolean concurrent) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
-        LibraryInput library = objectMapper.readValue(
-                new File(CheckerConstants.TESTS_PATH + "library/library.json"), LibraryInput.class);
-        CommandInput[] commands = objectMapper.readValue(
-                new File(CheckerConstants.TESTS_PATH + filePath1), CommandInput[].class);
-        ArrayNode outputs = objectMapper.createArrayNode();
+        LibraryInput library = loadLibrary(objectMapper);
+        ObjectWriter outputWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        CommandProfile profile = new CommandProfile();
 
         Admin.setUsers(library.getUsers());
         Admin.setSongs(library.getSongs());
         Admin.setPodcasts(library.getPodcasts());
 
-        for (CommandInput command : commands) {
-            Admin.updateTimestamp(command.getTimestamp());
-
-            String commandName = command.getCommand();
-
-            switch (commandName) {
-                case "search" -> outputs.add(CommandRunner.search(command));
-                case "select" -> outputs.add(CommandRunner.select(command));
-                case "load" -> outputs.add(CommandRunner.load(command));
-                case "playPause" -> outputs.add(CommandRunner.playPause(command));
-                case "repeat" -> outputs.add(CommandRunner.repeat(command));
-                case "shuffle" -> outputs.add(CommandRunner.shuffle(command));
-                case "forward" -> outputs.add(CommandRunner.forward(command));
-                case "backward" -> outputs.add(CommandRunner.backward(command));
-                case "like" -> outputs.add(CommandRunner.like(command));
-                case "next" -> outputs.add(CommandRunner.next(command));
-                case "prev" -> outputs.add(CommandRunner.prev(command));
-                case "createPlaylist" -> outputs.add(CommandRunner.createPlaylist(command));
-                case "addRemoveInPlaylist" ->
-                        outputs.add(CommandRunner.addRemoveInPlaylist(command));
-                case "switchVisibility" -> outputs.add(CommandRunner.switchVisibility(command));
-                case "showPlaylists" -> outputs.add(CommandRunner.showPlaylists(command));
-                case "follow" -> outputs.add(CommandRunner.follow(command));
-                case "status" -> outputs.add(CommandRunner.status(command));
-                case "showPreferredSongs" -> outputs.add(CommandRunner.showLikedSongs(command));
-                case "getPreferredGenre" -> outputs.add(CommandRunner.getPreferredGenre(command));
-                case "getTop5Songs" -> outputs.add(CommandRunner.getTop5Songs(command));
-                case "getTop5Playlists" -> outputs.add(CommandRunner.getTop5Playlists(command));
-                case "switchConnectionStatus" ->
-                        outputs.add(CommandRunner.switchConnectionStatus(command));
-                case "getOnlineUsers" -> outputs.add(CommandRunner.getOnlineUsers(command));
-                case "addUser" -> outputs.add(CommandRunner.addUsers(command));
-                case "addAlbum" -> outputs.add(CommandRunner.addAlbum(command));
-                case "getTop5Albums" -> outputs.add(CommandRunner.getTop5Albums(command));
-                case "addPodcast" -> outputs.add(CommandRunner.addPodcast(command));
-                case "removePodcast" -> outputs.add(CommandRunner.removePodcast(command));
-                case "printCurrentPage" -> outputs.add(CommandRunner.printCurrentPage(command));
-                case "showAlbums" -> outputs.add(CommandRunner.showAlbum(command));
-                case "showPodcasts" -> outputs.add(CommandRunner.showPodcasts(command));
-                case "addEvent" -> outputs.add(CommandRunner.addEvent(command));
-                case "addMerch" -> outputs.add(CommandRunner.addMerch(command));
-                case "getAllUsers" -> outputs.add(CommandRunner.getAllUsers(command));
-                case "deleteUser" -> outputs.add(CommandRunner.deleteUser(command));
-                case "addAnnouncement" -> outputs.add(CommandRunner.addAnnouncement(command));
-                case "removeAnnouncement" ->
-                        outputs.add(CommandRunner.removeAnnouncement(command));
-                case "removeAlbum" -> outputs.add(CommandRunner.removeAlbum(command));
-                case "changePage" -> outputs.add(CommandRunner.changePage(command));
-                case "removeEvent" -> outputs.add(CommandRunner.removeEvent(command));
-                case "getTop5Artists" -> outputs.add(CommandRunner.getTop5Artists(command));
-                default -> System.out.println("Invalid command " + commandName);
+        try (JsonParser commands = objectMapper.getFactory().createParser(
+                     new File(CheckerConstants.TESTS_PATH + filePath1));
+             JsonGenerator outputs = objectMapper.getFactory().createGenerator(
+                     new File(filePath2), JsonEncoding.UTF8)) {
+            outputs.useDefaultPrettyPrinter();
+            if (commands.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array of commands in " + filePath1);
+            }
+            outputs.writeStartArray();
+            try (CommandLog log = Boolean.getBoolean(LOG) ? CommandLog.create(
+                         Paths.get(siblingPath(filePath2, ".log")),
+                         Integer.getInteger(LOG_RECORDS, DEFAULT_LOG_RECORDS),
+                         Long.getLong(LOG_MILLIS, DEFAULT_LOG_MILLIS)) : null;
+                 UserActors actors = concurrent ? new UserActors(CommandRegistry.getDefault(),
+                         profile, output -> outputWriter.writeValue(outputs, output)) : null) {
+                while (commands.nextToken() == JsonToken.START_OBJECT) {
+                    CommandInput command = objectMapper.readValue(commands, CommandInput.class);
+                    run(command, outputs, outputWriter, profile, actors, log);
+                }
+                if (actors != null) {
+                    actors.finish();
+                }
             }
+            outputs.writeEndArray();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(new File(siblingPath(filePath2, ".profile.json")), profile.toJson());
+        if (Boolean.getBoolean(SNAPSHOT)) {
+            Snapshot.write(Paths.get(siblingPath(filePath2, ".snapshot")));
         }
-
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), outputs);
 
         Admin.reset();
     }
+
+    /**
+     * Rebuilds, on the calling thread, the state a logged run had reached when its log was last
+     * synced: the library is loaded again and the logged commands are replayed on top of it.
+     * Outputs are not produced again.
+     *
+     * @param logPath the command log of the run
+     * @return the number of commands replayed
+     * @throws IOException in case of exceptions to reading
+     */
+    public static int recover(final String logPath) throws IOException {
+        LibraryInput library = loadLibrary(new ObjectMapper());
+        Admin.setUsers(library.getUsers());
+        Admin.setSongs(library.getSongs());
+        Admin.setPodcasts(library.getPodcasts());
+        return CommandLog.replay(Paths.get(logPath), CommandRegistry.getDefault());
+    }
+
+    private static synchronized LibraryInput loadLibrary(final ObjectMapper objectMapper)
+            throws IOException {
+        if (library == null) {
+            library = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH
+                    + "library/library.json"), LibraryInput.class);
+        }
+        return library;
+    }
+
+    /**
+     * Where a file about a run goes: next to its output, "out.json" becoming "out" followed by
+     * the suffix.
+     *
+     * @param outputPath the output path
+     * @param suffix     the suffix, such as ".profile.json"
+     * @return the path
+     */
+    private static String siblingPath(final String outputPath, final String suffix) {
+        String base = outputPath.endsWith(".json")
+                ? outputPath.substring(0, outputPath.length() - ".json".length()) : outputPath;
+        return base + suffix;
+    }
+
+    private static void run(final CommandInput command, final JsonGenerator outputs,
+                            final ObjectWriter outputWriter, final CommandProfile profile,
+                            final UserActors actors, final CommandLog log)
+            throws IOException {
+        CommandRegistry commands = CommandRegistry.getDefault();
+        if (!commands.isRegistered(command.getCommand())) {
+            System.out.println("Invalid command " + command.getCommand());
+            return;
+        }
+        if (log != null && !commands.isReadOnly(command.getCommand())) {
+            log.append(command);
+        }
+        if (actors != null) {
+            actors.submit(command);
+            return;
+        }
+
+        Admin.updateTimestamp(command.getTimestamp());
+        outputWriter.writeValue(outputs, commands.dispatch(command, profile));
+    }
 }
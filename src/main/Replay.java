@@ -0,0 +1,99 @@
+package main;
+
+import app.Admin;
+import app.ExecutionContext;
+import checker.CheckerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays every command file in the input folder on a pool of threads and reports how long
+ * each file took. Every thread has its own {@link ExecutionContext}, and every file starts
+ * with a fresh page registry, so the outputs do not depend on which thread ran which file.
+ *
+ * Usage: {@code Replay [--parallelism N]}, N defaulting to the number of processors.
+ */
+public final class Replay {
+    private static final String PARALLELISM = "--parallelism";
+
+    /**
+     * for coding style
+     */
+    private Replay() {
+    }
+
+    /**
+     * @param args from command line
+     * @throws IOException in case of exceptions to reading / writing
+     * @throws InterruptedException if interrupted while waiting for the replays
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith(PARALLELISM + "=")) {
+                parallelism = Integer.parseInt(args[i].substring(PARALLELISM.length() + 1));
+            } else if (PARALLELISM.equals(args[i]) && i + 1 < args.length) {
+                parallelism = Integer.parseInt(args[++i]);
+            }
+        }
+
+        Files.createDirectories(Paths.get(CheckerConstants.RESULT_PATH));
+        List<File> files = new ArrayList<>();
+        for (File file : Objects.requireNonNull(
+                new File(CheckerConstants.TESTS_PATH).listFiles())) {
+            if (!file.getName().startsWith("library")) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(File::getName));
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        long start = System.nanoTime();
+        List<Future<Long>> timings = new ArrayList<>();
+        for (File file : files) {
+            timings.add(pool.submit(() -> replay(file.getName())));
+        }
+        pool.shutdown();
+
+        long busy = 0;
+        for (int i = 0; i < files.size(); i++) {
+            String name = files.get(i).getName();
+            try {
+                long nanos = timings.get(i).get();
+                busy += nanos;
+                System.out.printf("%s %d ms%n", name, TimeUnit.NANOSECONDS.toMillis(nanos));
+            } catch (ExecutionException e) {
+                System.out.printf("%s failed: %s%n", name, e.getCause());
+            }
+        }
+        long wall = System.nanoTime() - start;
+        System.out.printf("%d files, parallelism %d: %d ms wall, %d ms busy%n", files.size(),
+                parallelism, TimeUnit.NANOSECONDS.toMillis(wall),
+                TimeUnit.NANOSECONDS.toMillis(busy));
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static long replay(final String fileName) throws IOException {
+        ExecutionContext.current().resetPage();
+        long start = System.nanoTime();
+        try {
+            Main.action(fileName, CheckerConstants.OUT_PATH + fileName);
+        } catch (IOException | RuntimeException e) {
+            Admin.reset();
+            throw e;
+        }
+        return System.nanoTime() - start;
+    }
+}